@@ -37,6 +37,15 @@ import java.util.List;
  * must be used, <code>A</code> should be some kind of containing structure that
  * the subclass may reuse between notifications.</p>
  *
+ * <p>By default, notification, addition and removal all synchronize on the registry. A
+ * registry constructed with snapshot notifications enabled instead keeps its callbacks in an
+ * immutable array that is replaced on every addition or removal. Notifications then iterate
+ * the array that was current when they started without taking a lock or allocating, so
+ * notifications coming from several threads do not contend with each other or with
+ * registration. Removing a callback during notification behaves as it does by default: the
+ * notification in progress still reaches every callback it started with, while nested
+ * notifications skip the removed callback.</p>
+ *
  * @param <C> The callback type.
  * @param <T> The notification sender type. Typically this is the containing class.
  * @param <A> Opaque argument used to pass additional data beyond an int.
@@ -44,6 +53,8 @@ import java.util.List;
 public class CallbackRegistry<C, T, A> implements Cloneable {
     private static final String TAG = "CallbackRegistry";
 
+    private static final Object[] EMPTY_SNAPSHOT = new Object[0];
+
     /** An ordered collection of listeners waiting to be notified. */
     private List<C> mCallbacks = new ArrayList<C>();
 
@@ -68,12 +79,47 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
     /** The notification mechanism for notifying an event. */
     private final NotifierCallback<C, T, A> mNotifier;
 
+    /**
+     * True when notifications iterate {@link #mSnapshot} without holding the lock instead of
+     * walking mCallbacks.
+     */
+    private final boolean mSnapshotNotifications;
+
+    /**
+     * The callbacks when mSnapshotNotifications is set. The array is never modified once it is
+     * published; additions and removals replace it with a new copy while holding the lock.
+     */
+    private volatile Object[] mSnapshot = EMPTY_SNAPSHOT;
+
     /**
      * Creates an EventRegistry that notifies the event with notifier.
      * @param notifier The class to use to notify events.
      */
     public CallbackRegistry(NotifierCallback<C, T, A> notifier) {
+        this(notifier, false);
+    }
+
+    /**
+     * Creates an EventRegistry that notifies the event with notifier.
+     *
+     * @param notifier The class to use to notify events.
+     * @param snapshotNotifications true to notify from a copy-on-write snapshot of the
+     *                              callbacks without locking, or false to synchronize
+     *                              notifications with additions and removals.
+     */
+    public CallbackRegistry(NotifierCallback<C, T, A> notifier, boolean snapshotNotifications) {
         mNotifier = notifier;
+        mSnapshotNotifications = snapshotNotifications;
+    }
+
+    /**
+     * Returns true if this registry notifies from a copy-on-write snapshot of its callbacks
+     * rather than synchronizing notifications.
+     *
+     * @return true if notifications are dispatched without taking the registry's lock.
+     */
+    public boolean isSnapshotNotifications() {
+        return mSnapshotNotifications;
     }
 
     /**
@@ -86,27 +132,53 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      * @param arg2 An opaque parameter passed to
      * {@link CallbackRegistry.NotifierCallback#onNotifyCallback(Object, Object, int, Object)}
      */
-    public synchronized void notifyCallbacks(T sender, int arg, A arg2) {
-        mNotificationLevel++;
-        notifyRecurse(sender, arg, arg2);
-        mNotificationLevel--;
-        if (mNotificationLevel == 0) {
-            if (mRemainderRemoved != null) {
-                for (int i = mRemainderRemoved.length - 1; i >= 0; i--) {
-                    final long removedBits = mRemainderRemoved[i];
-                    if (removedBits != 0) {
-                        removeRemovedCallbacks((i + 1) * Long.SIZE, removedBits);
-                        mRemainderRemoved[i] = 0;
+    public void notifyCallbacks(T sender, int arg, A arg2) {
+        if (mSnapshotNotifications) {
+            notifySnapshot(sender, arg, arg2);
+            return;
+        }
+        synchronized (this) {
+            mNotificationLevel++;
+            notifyRecurse(sender, arg, arg2);
+            mNotificationLevel--;
+            if (mNotificationLevel == 0) {
+                if (mRemainderRemoved != null) {
+                    for (int i = mRemainderRemoved.length - 1; i >= 0; i--) {
+                        final long removedBits = mRemainderRemoved[i];
+                        if (removedBits != 0) {
+                            removeRemovedCallbacks((i + 1) * Long.SIZE, removedBits);
+                            mRemainderRemoved[i] = 0;
+                        }
                     }
                 }
-            }
-            if (mFirst64Removed != 0) {
-                removeRemovedCallbacks(0, mFirst64Removed);
-                mFirst64Removed = 0;
+                if (mFirst64Removed != 0) {
+                    removeRemovedCallbacks(0, mFirst64Removed);
+                    mFirst64Removed = 0;
+                }
             }
         }
     }
 
+    /**
+     * Notify all callbacks in the current snapshot. Callbacks added or removed while notifying
+     * replace the snapshot, so they don't affect this notification, but nested notifications
+     * will see them.
+     *
+     * @param sender The originator. This is an opaque parameter passed to
+     * {@link CallbackRegistry.NotifierCallback#onNotifyCallback(Object, Object, int, Object)}
+     * @param arg An opaque parameter passed to
+     * {@link CallbackRegistry.NotifierCallback#onNotifyCallback(Object, Object, int, Object)}
+     * @param arg2 An opaque parameter passed to
+     * {@link CallbackRegistry.NotifierCallback#onNotifyCallback(Object, Object, int, Object)}
+     */
+    @SuppressWarnings("unchecked")
+    private void notifySnapshot(T sender, int arg, A arg2) {
+        final Object[] callbacks = mSnapshot;
+        for (int i = 0; i < callbacks.length; i++) {
+            mNotifier.onNotifyCallback((C) callbacks[i], sender, arg, arg2);
+        }
+    }
+
     /**
      * Notify up to the first Long.SIZE callbacks that don't have a bit set in <code>removed</code>.
      *
@@ -213,6 +285,16 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
         if (callback == null) {
             throw new IllegalArgumentException("callback cannot be null");
         }
+        if (mSnapshotNotifications) {
+            final Object[] callbacks = mSnapshot;
+            if (indexOf(callbacks, callback) < 0) {
+                final Object[] newCallbacks = new Object[callbacks.length + 1];
+                System.arraycopy(callbacks, 0, newCallbacks, 0, callbacks.length);
+                newCallbacks[callbacks.length] = callback;
+                mSnapshot = newCallbacks;
+            }
+            return;
+        }
         int index = mCallbacks.lastIndexOf(callback);
         if (index < 0 || isRemoved(index)) {
             mCallbacks.add(callback);
@@ -274,7 +356,17 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      * @param callback The callback to remove.
      */
     public synchronized void remove(C callback) {
-        if (mNotificationLevel == 0) {
+        if (mSnapshotNotifications) {
+            final Object[] callbacks = mSnapshot;
+            final int index = indexOf(callbacks, callback);
+            if (index >= 0) {
+                final Object[] newCallbacks = new Object[callbacks.length - 1];
+                System.arraycopy(callbacks, 0, newCallbacks, 0, index);
+                System.arraycopy(callbacks, index + 1, newCallbacks, index,
+                        newCallbacks.length - index);
+                mSnapshot = newCallbacks;
+            }
+        } else if (mNotificationLevel == 0) {
             mCallbacks.remove(callback);
         } else {
             int index = mCallbacks.lastIndexOf(callback);
@@ -284,6 +376,22 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
         }
     }
 
+    /**
+     * Returns the index of callback in a snapshot or -1 if it isn't there.
+     *
+     * @param callbacks The snapshot to search.
+     * @param callback The callback to find.
+     * @return The index of callback in callbacks or -1 if it isn't there.
+     */
+    private static int indexOf(Object[] callbacks, Object callback) {
+        for (int i = 0; i < callbacks.length; i++) {
+            if (callback == null ? callbacks[i] == null : callback.equals(callbacks[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private void setRemovalBit(int index) {
         if (index < Long.SIZE) {
             // It is in the first 64 callbacks, just check the bit.
@@ -309,7 +417,16 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      *
      * @return a copy of the registered callbacks.
      */
+    @SuppressWarnings("unchecked")
     public synchronized ArrayList<C> copyCallbacks() {
+        if (mSnapshotNotifications) {
+            final Object[] snapshot = mSnapshot;
+            ArrayList<C> callbacks = new ArrayList<C>(snapshot.length);
+            for (int i = 0; i < snapshot.length; i++) {
+                callbacks.add((C) snapshot[i]);
+            }
+            return callbacks;
+        }
         ArrayList<C> callbacks = new ArrayList<C>(mCallbacks.size());
         int numListeners = mCallbacks.size();
         for (int i = 0; i < numListeners; i++) {
@@ -325,8 +442,16 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      *
      * @param callbacks modified to contain all callbacks registered to receive events.
      */
+    @SuppressWarnings("unchecked")
     public synchronized void copyCallbacks(List<C> callbacks) {
         callbacks.clear();
+        if (mSnapshotNotifications) {
+            final Object[] snapshot = mSnapshot;
+            for (int i = 0; i < snapshot.length; i++) {
+                callbacks.add((C) snapshot[i]);
+            }
+            return;
+        }
         int numListeners = mCallbacks.size();
         for (int i = 0; i < numListeners; i++) {
             if (!isRemoved(i)) {
@@ -341,7 +466,9 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      * @return true if there are no registered callbacks or false otherwise.
      */
     public synchronized boolean isEmpty() {
-        if (mCallbacks.isEmpty()) {
+        if (mSnapshotNotifications) {
+            return mSnapshot.length == 0;
+        } else if (mCallbacks.isEmpty()) {
             return true;
         } else if (mNotificationLevel == 0) {
             return false;
@@ -360,7 +487,9 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      * Removes all callbacks from the list.
      */
     public synchronized void clear() {
-        if (mNotificationLevel == 0) {
+        if (mSnapshotNotifications) {
+            mSnapshot = EMPTY_SNAPSHOT;
+        } else if (mNotificationLevel == 0) {
             mCallbacks.clear();
         } else if (!mCallbacks.isEmpty()) {
             for (int i = mCallbacks.size() - 1; i >= 0; i--) {
@@ -30,6 +30,9 @@ package androidx.databinding;
  * <p>
  * Convenience class BaseObservable implements this interface and PropertyChangeRegistry
  * can help classes that don't extend BaseObservable to implement the listener registry.
+ * <p>
+ * Callers should not rely on the order in which callbacks are notified. PropertyChangeRegistry
+ * notifies the callbacks that only observe some properties after the other callbacks.
  */
 public interface Observable {
 
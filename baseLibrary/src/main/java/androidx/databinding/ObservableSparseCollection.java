@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.databinding;
+
+/**
+ * A collection of values mapped from int or long keys that notifies when values change. Keys
+ * are reported as primitives, so that neither lookups nor notifications box them. This kind of
+ * collection may be data bound with expressions such as <code>@{values[key]}</code>.
+ * <p>
+ * Implementers must call {@link OnKeyChangedCallback#onKeyChanged(ObservableSparseCollection,
+ * long)} whenever the value of a key is added, changed, or removed.
+ * <p>
+ * ObservableSparseArray, ObservableLongSparseArray and ObservableIntIntMap are implementations
+ * of ObservableSparseCollection. KeyChangeRegistry may help other implementations manage the
+ * callbacks.
+ * @see ObservableMap
+ */
+public interface ObservableSparseCollection {
+
+    /**
+     * Adds a callback to listen for changes to the ObservableSparseCollection.
+     * @param callback The callback to start listening for events.
+     */
+    void addOnKeyChangedCallback(
+            OnKeyChangedCallback<? extends ObservableSparseCollection> callback);
+
+    /**
+     * Removes a previously added callback.
+     * @param callback The callback that no longer needs to be notified of changes.
+     */
+    void removeOnKeyChangedCallback(
+            OnKeyChangedCallback<? extends ObservableSparseCollection> callback);
+
+    /**
+     * A callback receiving notifications when an ObservableSparseCollection changes.
+     */
+    abstract class OnKeyChangedCallback<T extends ObservableSparseCollection> {
+
+        /**
+         * Called whenever the value of a key is inserted, removed, or changed.
+         * @param sender The changing collection.
+         * @param key The key of the value inserted, removed, or changed. Int keys are widened
+         *            to long.
+         */
+        public abstract void onKeyChanged(T sender, long key);
+
+        /**
+         * Called when any number of keys changed, for example when the collection is cleared.
+         * @param sender The changing collection.
+         */
+        public abstract void onChanged(T sender);
+    }
+}
@@ -166,8 +166,11 @@ class BindableBag(
             captureValues: Boolean)
             : List<PackageProps> {
         val brFiles = generationalClassUtil
-                .load(GenerationalClassUtil.ExtensionFilter.BR, Intermediate::class.java)
+                .loadLazily(GenerationalClassUtil.ExtensionFilter.BR, Intermediate::class.java)
+        // the file name is the package, so the current module's own file is never read
         return brFiles
+                .filter { compilerArgs.modulePackage != it.pkg }
+                .mapNotNull { it.value }
                 .filter { compilerArgs.modulePackage != it.`package` }
                 .map {
                     createPackageProps(it.`package`, it.getProperties(), captureValues)
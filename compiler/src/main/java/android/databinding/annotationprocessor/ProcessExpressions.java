@@ -74,7 +74,7 @@ public class ProcessExpressions extends ProcessDataBinding.ProcessingStep {
                     args.getModulePackage(),
                     ModelAnalyzer.getInstance().libTypes.getUseAndroidX());
             L.d("creating resource bundle for %s", args.getModulePackage());
-            final List<IntermediateV2> intermediateList;
+            final List<IntermediateV3> intermediateList;
             GenClassInfoLog infoLog = null;
             @Nullable
             CompilerChef v1CompatChef = null;
@@ -111,15 +111,23 @@ public class ProcessExpressions extends ProcessDataBinding.ProcessingStep {
                     }
                 }
             }
-            IntermediateV2 mine = createIntermediateFromLayouts(args.getLayoutInfoDir(),
+            IntermediateV3 mine = createIntermediateFromLayouts(args.getLayoutInfoDir(),
                     intermediateList);
             if (mine != null) {
                 if (!args.isEnableV2()) {
-                    mine.updateOverridden(resourceBundle);
-                    intermediateList.add(mine);
-                    saveIntermediate(args, mine);
+                    try {
+                        mine.updateOverridden(resourceBundle);
+                        intermediateList.add(mine);
+                        saveIntermediate(args, mine);
+                    } catch (IOException e) {
+                        L.e(e, "cannot load layout file information. Try a clean build");
+                    }
+                }
+                try {
+                    mine.appendTo(resourceBundle, true);
+                } catch (IOException e) {
+                    L.e(e, "cannot load layout file information. Try a clean build");
                 }
-                mine.appendTo(resourceBundle, true);
             }
             // generate them here so that bindable parser can read
             try {
@@ -133,22 +141,28 @@ public class ProcessExpressions extends ProcessDataBinding.ProcessingStep {
         return true;
     }
 
-    private List<IntermediateV2> loadDependencyIntermediates() {
+    private List<IntermediateV3> loadDependencyIntermediates() {
         final List<Intermediate> original = GenerationalClassUtil.get().load(
                 GenerationalClassUtil.ExtensionFilter.LAYOUT, Intermediate.class);
-        final List<IntermediateV2> upgraded = new ArrayList<>(original.size());
+        final List<IntermediateV3> upgraded = new ArrayList<>(original.size());
         for (Intermediate intermediate : original) {
-            final Intermediate updatedIntermediate = intermediate.upgrade();
-            Preconditions.check(updatedIntermediate instanceof IntermediateV2, "Incompatible data"
+            Intermediate updatedIntermediate = intermediate.upgrade();
+            if (updatedIntermediate instanceof IntermediateV2) {
+                updatedIntermediate = updatedIntermediate.upgrade();
+            }
+            Preconditions.check(updatedIntermediate instanceof IntermediateV3, "Incompatible data"
                     + " binding dependency. Please update your dependencies or recompile them with"
                     + " application module's data binding version.");
             //noinspection ConstantConditions
-            upgraded.add((IntermediateV2) updatedIntermediate);
+            upgraded.add((IntermediateV3) updatedIntermediate);
         }
         return upgraded;
     }
 
-    private void saveIntermediate(CompilerArguments args, IntermediateV2 intermediate) {
+    private void saveIntermediate(CompilerArguments args, IntermediateV3 intermediate)
+            throws IOException, JAXBException {
+        // dependent modules read the binary encoding much faster than the xml
+        intermediate.encodeAll();
         GenerationalClassUtil.get().write(args.getModulePackage(),
                         GenerationalClassUtil.ExtensionFilter.LAYOUT, intermediate);
     }
@@ -158,14 +172,14 @@ public class ProcessExpressions extends ProcessDataBinding.ProcessingStep {
             ProcessingEnvironment processingEnvironment, CompilerArguments args) {
     }
 
-    private IntermediateV2 createIntermediateFromLayouts(File layoutInfoDir,
-            List<IntermediateV2> intermediateList) {
+    private IntermediateV3 createIntermediateFromLayouts(File layoutInfoDir,
+            List<IntermediateV3> intermediateList) {
         L.d("creating intermediate list from input layouts of %s", layoutInfoDir);
         final Set<String> excludeList = new HashSet<String>();
-        for (IntermediateV2 lib : intermediateList) {
+        for (IntermediateV3 lib : intermediateList) {
             excludeList.addAll(lib.mLayoutInfoMap.keySet());
         }
-        IntermediateV2 result = new IntermediateV2();
+        IntermediateV3 result = new IntermediateV3();
         if (!layoutInfoDir.isDirectory()) {
             // it is a zip in blaze / bazel.
             L.d("trying to load layout info from zip file");
@@ -188,7 +202,8 @@ public class ProcessExpressions extends ProcessDataBinding.ProcessingStep {
                 }
                 L.d("found xml file %s", layoutFile.getAbsolutePath());
                 try {
-                    result.addEntry(layoutFile.getName(), FileUtils.readFileToString(layoutFile));
+                    result.addEntry(layoutFile.getName(),
+                            FileUtils.readFileToByteArray(layoutFile));
                 } catch (IOException e) {
                     L.e(e, "cannot load layout file information. Try a clean build");
                 }
@@ -208,7 +223,7 @@ public class ProcessExpressions extends ProcessDataBinding.ProcessingStep {
         return result;
     }
 
-    private void loadLayoutInfoFromZipFile(File zipFile, IntermediateV2 result,
+    private void loadLayoutInfoFromZipFile(File zipFile, IntermediateV3 result,
             Set<String> excludeList) throws IOException {
         ZipFile zf = new ZipFile(zipFile);
         L.d("checking zip file %s", zipFile);
@@ -222,8 +237,7 @@ public class ProcessExpressions extends ProcessDataBinding.ProcessingStep {
             }
             L.d("use entry %s", entry.getName());
             try {
-                result.addEntry(entry.getName(), IOUtils.toString(zf.getInputStream(entry),
-                        Charsets.UTF_8));
+                result.addEntry(entry.getName(), IOUtils.toByteArray(zf.getInputStream(entry)));
                 L.d("loaded entry %s", entry.getName());
             } catch (IOException e) {
                 L.e(e, "cannot load layout file information. Try a clean build");
@@ -338,6 +352,16 @@ public class ProcessExpressions extends ProcessDataBinding.ProcessingStep {
     public static class IntermediateV2 extends IntermediateV1 {
         // specify so that we can define updates ourselves.
         private static final long serialVersionUID = 2L;
+
+        @Override
+        public Intermediate upgrade() {
+            final IntermediateV3 updated = new IntermediateV3();
+            for (Map.Entry<String, String> entry : mLayoutInfoMap.entrySet()) {
+                updated.addEntry(entry.getKey(), entry.getValue().getBytes(Charsets.UTF_8));
+            }
+            return updated;
+        }
+
         @Override
         public void appendTo(ResourceBundle resourceBundle, boolean fromSource) throws JAXBException {
             for (Map.Entry<String, String> entry : mLayoutInfoMap.entrySet()) {
@@ -380,4 +404,95 @@ public class ProcessExpressions extends ProcessDataBinding.ProcessingStep {
             }
         }
     }
+
+    /**
+     * Keeps the layout info of a module either encoded with
+     * {@link ResourceBundle.LayoutFileBundle#toBinary()} or, for the entries that were just read
+     * from the layout info files, as xml. Each entry is only decoded when it is needed.
+     */
+    public static class IntermediateV3 implements Intermediate {
+        private static final long serialVersionUID = 3L;
+
+        // name to layout info map
+        Map<String, byte[]> mLayoutInfoMap = new HashMap<String, byte[]>();
+
+        private transient Map<String, ResourceBundle.LayoutFileBundle> mBundles;
+
+        @Override
+        public Intermediate upgrade() {
+            return this;
+        }
+
+        @Override
+        public void appendTo(ResourceBundle resourceBundle, boolean fromSource)
+                throws JAXBException, IOException {
+            for (String name : mLayoutInfoMap.keySet()) {
+                final ResourceBundle.LayoutFileBundle bundle = getBundle(name);
+                resourceBundle.addLayoutBundle(bundle, fromSource);
+                L.d("loaded layout info file %s", bundle);
+            }
+        }
+
+        public List<ResourceBundle.LayoutFileBundle> extractBundles()
+                throws JAXBException, IOException {
+            List<ResourceBundle.LayoutFileBundle> bundles = new ArrayList<>();
+            for (String name : mLayoutInfoMap.keySet()) {
+                bundles.add(getBundle(name));
+            }
+            return bundles;
+        }
+
+        public void addEntry(String name, byte[] contents) {
+            mLayoutInfoMap.put(name, contents);
+            if (mBundles != null) {
+                mBundles.remove(name);
+            }
+        }
+
+        private ResourceBundle.LayoutFileBundle getBundle(String name)
+                throws JAXBException, IOException {
+            if (mBundles == null) {
+                mBundles = new HashMap<>();
+            }
+            ResourceBundle.LayoutFileBundle bundle = mBundles.get(name);
+            if (bundle == null) {
+                bundle = ResourceBundle.LayoutFileBundle.fromBytes(mLayoutInfoMap.get(name));
+                mBundles.put(name, bundle);
+            }
+            return bundle;
+        }
+
+        /**
+         * Replaces the xml entries with their binary encoding.
+         */
+        public void encodeAll() throws JAXBException, IOException {
+            for (Map.Entry<String, byte[]> entry : mLayoutInfoMap.entrySet()) {
+                if (!ResourceBundle.LayoutFileBundle.isBinary(entry.getValue())) {
+                    entry.setValue(getBundle(entry.getKey()).toBinary());
+                }
+            }
+        }
+
+        /**
+         * if a layout is overridden from a module (which happens when layout is auto-generated),
+         * we need to update its contents from the class that overrides it.
+         * This must be done before this bundle is saved, otherwise, it will not be recognized
+         * when it is used in another project.
+         */
+        public void updateOverridden(ResourceBundle bundle) throws JAXBException, IOException {
+            final Map<String, List<ResourceBundle.LayoutFileBundle>> bundles = bundle
+                    .getLayoutBundles();
+            for (String name : new ArrayList<>(mLayoutInfoMap.keySet())) {
+                String key = LayoutXmlProcessor.exportLayoutNameFromInfoFileName(name);
+                final List<ResourceBundle.LayoutFileBundle> existingList = bundles.get(key);
+                if (existingList != null && !existingList.isEmpty()) {
+                    ResourceBundle.LayoutFileBundle myBundle = getBundle(name);
+                    final ResourceBundle.LayoutFileBundle inheritFrom = existingList.get(0);
+                    myBundle.inheritConfigurationFrom(inheritFrom);
+                    L.d("inheriting data for %s (%s) from %s", name, key, inheritFrom);
+                    mLayoutInfoMap.put(name, myBundle.toBinary());
+                }
+            }
+        }
+    }
 }
@@ -32,7 +32,7 @@ import javax.annotation.processing.ProcessingEnvironment
 class ProcessExpressionsFromV1Compat(
     private val processingEnvironment: ProcessingEnvironment,
     private val args : CompilerArguments,
-    private val intermediates : List<ProcessExpressions.IntermediateV2>,
+    private val intermediates : List<ProcessExpressions.IntermediateV3>,
     private val writer : JavaFileWriter) {
     /**
      * Returns a CompilerChef if we find V1 dependencies and generate code for them.
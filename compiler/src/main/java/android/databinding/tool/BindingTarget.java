@@ -123,6 +123,15 @@ public class BindingTarget implements LocationScopeProvider {
         return mBundle.getModulePackage();
     }
 
+    /**
+     * The comma separated child indices that lead from the root View to this target, or null if
+     * they are not known at compile time.
+     */
+    @Nullable
+    public String getViewPath() {
+        return mBundle.getViewPath();
+    }
+
     /**
      * This will return true for both DataBinding and ViewBinding targets. Check the resolved type
      * if you need to distinguish between the two.
@@ -26,6 +26,7 @@ import android.databinding.tool.util.L;
 import android.databinding.tool.writer.BindingMapperWriter;
 import android.databinding.tool.writer.BindingMapperWriterV2;
 import android.databinding.tool.writer.JavaFileWriter;
+import android.databinding.tool.writer.LayoutBinderWriterOptions;
 import android.databinding.tool.writer.MergedBindingMapperWriter;
 import com.android.annotations.NonNull;
 import com.android.annotations.Nullable;
@@ -82,6 +83,7 @@ public class CompilerChef {
     private ResourceBundle mResourceBundle;
     private DataBinder mDataBinder;
     private boolean mEnableV2;
+    private LayoutBinderWriterOptions mWriterOptions;
     // the compiler chef we create for V1 dependencies
     @Nullable
     private CompilerChef mV1CompatChef;
@@ -103,6 +105,7 @@ public class CompilerChef {
         chef.mFileWriter = fileWriter;
         chef.mResourceBundle.validateAndRegisterErrors();
         chef.mEnableV2 = compilerArgs.isEnableV2();
+        chef.mWriterOptions = LayoutBinderWriterOptions.fromCompilerArgs(compilerArgs);
         chef.pushClassesToAnalyzer();
         return chef;
     }
@@ -378,7 +381,7 @@ public class CompilerChef {
 
     public void writeViewBinders(int minSdk) {
         ensureDataBinder();
-        mDataBinder.writeBinders(minSdk);
+        mDataBinder.writeBinders(minSdk, mWriterOptions);
     }
 
     public void writeComponent() {
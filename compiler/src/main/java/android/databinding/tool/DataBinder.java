@@ -26,6 +26,7 @@ import android.databinding.tool.util.StringUtils;
 import android.databinding.tool.writer.CallbackWrapperWriter;
 import android.databinding.tool.writer.ComponentWriter;
 import android.databinding.tool.writer.JavaFileWriter;
+import android.databinding.tool.writer.LayoutBinderWriterOptions;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -128,7 +129,7 @@ public class DataBinder {
         return variations;
     }
 
-    public void writeBinders(int minSdk) {
+    public void writeBinders(int minSdk, LayoutBinderWriterOptions options) {
         writeCallbackWrappers(minSdk);
         for (LayoutBinder layoutBinder : mLayoutBinders) {
             try {
@@ -140,7 +141,7 @@ public class DataBinder {
                     // if v2 is enable, do not record it as we don't want it to be stripped
                     mClassesToBeStripped.add(canonicalName);
                 }
-                mFileWriter.writeToFile(canonicalName, layoutBinder.writeViewBinder(minSdk));
+                mFileWriter.writeToFile(canonicalName, layoutBinder.writeViewBinder(minSdk, options));
             } catch (ScopedException ex) {
                 Scope.defer(ex);
             } catch (Throwable t) {
@@ -30,6 +30,7 @@ import android.databinding.tool.util.L;
 import android.databinding.tool.util.Preconditions;
 import android.databinding.tool.writer.LayoutBinderWriter;
 import android.databinding.tool.writer.LayoutBinderWriterKt;
+import android.databinding.tool.writer.LayoutBinderWriterOptions;
 
 import com.android.annotations.Nullable;
 
@@ -250,11 +251,11 @@ public class LayoutBinder implements FileScopeProvider {
         return mWriter.writeBaseClass(forLibrary, variations);
     }
 
-    public String writeViewBinder(int minSdk) {
+    public String writeViewBinder(int minSdk, LayoutBinderWriterOptions options) {
         ensureWriter();
         Preconditions.checkNotNull(getPackage(), "package cannot be null");
         Preconditions.checkNotNull(getClassName(), "base class name cannot be null");
-        return mWriter.write(minSdk);
+        return mWriter.write(minSdk, options);
     }
 
     public String getPackage() {
@@ -48,6 +48,11 @@ public class BracketExpr extends Expr {
             mAccessor = BracketAccessor.ARRAY;
         } else if (targetType.isList()) {
             mAccessor = BracketAccessor.LIST;
+            // read without boxing through ViewDataBinding#getFromList
+            ModelClass itemType = modelAnalyzer.findPrimitiveListItemType(targetType);
+            if (itemType != null) {
+                return itemType;
+            }
         } else if (targetType.isMap()) {
             mAccessor = BracketAccessor.MAP;
         } else {
@@ -116,6 +121,50 @@ public class BracketExpr extends Expr {
         return mAccessor;
     }
 
+    @Override
+    public String getConstantMapKey() {
+        Expr arg = getArg();
+        if (mAccessor == BracketAccessor.MAP && arg instanceof SymbolExpr &&
+                String.class.equals(((SymbolExpr) arg).mType)) {
+            return ((SymbolExpr) arg).getText();
+        }
+        return null;
+    }
+
+    @Override
+    public String getConstantSparseKey() {
+        Expr arg = getArg();
+        if (mAccessor == BracketAccessor.LIST && arg instanceof SymbolExpr) {
+            Class type = ((SymbolExpr) arg).mType;
+            if (int.class.equals(type) || long.class.equals(type)) {
+                String text = ((SymbolExpr) arg).getText().replace("_", "");
+                if (long.class.equals(type)) {
+                    text = text.substring(0, text.length() - 1);
+                }
+                try {
+                    return Long.decode(text) + "L";
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getConstantListIndex() {
+        Expr arg = getArg();
+        if (mAccessor == BracketAccessor.LIST && arg instanceof SymbolExpr &&
+                int.class.equals(((SymbolExpr) arg).mType)) {
+            try {
+                return Integer.decode(((SymbolExpr) arg).getText().replace("_", ""));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
     public boolean argCastsInteger() {
         return mAccessor != BracketAccessor.MAP && getArg().getResolvedType().isObject();
     }
@@ -173,7 +222,8 @@ public class BracketExpr extends Expr {
                 ? model.castExpr("int", model.castExpr("Integer", arg))
                 : arg;
         ModelClass targetType = getTarget().getResolvedType();
-        if ((targetType.isList() || targetType.isMap()) &&
+        // setTo takes primitive values for collections of primitives
+        if ((targetType.isList() || targetType.isMap()) && !getResolvedType().isPrimitive() &&
                 value.getResolvedType().isPrimitive()) {
             ModelClass boxed = value.getResolvedType().box();
             value = model.castExpr(boxed.toJavaCode(), value);
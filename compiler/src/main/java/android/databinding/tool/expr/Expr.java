@@ -187,6 +187,37 @@ abstract public class Expr implements VersionProvider, LocationScopeProvider {
         return true; // anything except arg/return expr can be evaluated to a variable
     }
 
+    /**
+     * @return The Java String literal of the key if this expression reads a constant String key
+     * from a Map, null otherwise.
+     */
+    public String getConstantMapKey() {
+        return null;
+    }
+
+    /**
+     * @return The Java long literal of the key if this expression reads a constant integer key
+     * from a collection with int or long keys, null otherwise.
+     */
+    public String getConstantSparseKey() {
+        return null;
+    }
+
+    /**
+     * @return The index if this expression reads a constant index from a List, -1 otherwise.
+     */
+    public int getConstantListIndex() {
+        return -1;
+    }
+
+    /**
+     * @return true if this expression depends only on the size of its target, like a call to
+     * <code>size()</code> or <code>isEmpty()</code>.
+     */
+    public boolean readsOnlySize() {
+        return false;
+    }
+
     public boolean isObservable() {
         return getResolvedType().isObservable();
     }
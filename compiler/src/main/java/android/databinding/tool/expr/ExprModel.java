@@ -81,6 +81,18 @@ public class ExprModel {
 
     private List<Expr> mObservables;
 
+    /**
+     * The ObservableMaps that are only read with constant keys, mapped to the expressions
+     * reading them.
+     */
+    private Map<Expr, List<Expr>> mConstantKeyReads = new HashMap<Expr, List<Expr>>();
+
+    /**
+     * The ObservableLists that are read with constant indices, mapped to all the expressions
+     * reading them.
+     */
+    private Map<Expr, List<Expr>> mRangeTrackedReads = new HashMap<Expr, List<Expr>>();
+
     private boolean mSealed = false;
 
     private MutableImportBag mImports = new MutableImportBag();
@@ -410,6 +422,78 @@ public class ExprModel {
         return mObservables;
     }
 
+    /**
+     * Returns the expressions reading constant keys from <code>observable</code> if it is an
+     * ObservableMap or an ObservableSparseCollection that is read in no other way, null
+     * otherwise.
+     */
+    @Nullable
+    public List<Expr> getConstantKeyReads(Expr observable) {
+        return mConstantKeyReads.get(observable);
+    }
+
+    /**
+     * @return true if <code>expr</code> is an ObservableSparseCollection, whose keys are
+     * read with {@link Expr#getConstantSparseKey()} rather than {@link Expr#getConstantMapKey()}.
+     */
+    public static boolean isSparseCollection(Expr expr) {
+        ModelClass sparseType = ModelAnalyzer.getInstance().getObservableSparseCollectionType();
+        return sparseType != null && sparseType.isAssignableFrom(expr.getResolvedType());
+    }
+
+    @Nullable
+    private List<Expr> findConstantKeyReads(Expr observable, ModelAnalyzer modelAnalyzer) {
+        if (observable.isBindingExpression()) {
+            return null;
+        }
+        final boolean sparse = isSparseCollection(observable);
+        if (!sparse && !modelAnalyzer.getObservableMapType()
+                .isAssignableFrom(observable.getResolvedType())) {
+            return null;
+        }
+        List<Expr> keyReads = new ArrayList<Expr>();
+        for (Expr parent : observable.getParents()) {
+            if (mExprMap.get(parent.getUniqueKey()) != parent) {
+                continue; // replaced while the model was updated
+            }
+            String key = sparse ? parent.getConstantSparseKey() : parent.getConstantMapKey();
+            if (key == null) {
+                return null;
+            }
+            keyReads.add(parent);
+        }
+        return keyReads.isEmpty() ? null : keyReads;
+    }
+
+    /**
+     * Returns all the expressions reading <code>observable</code> if it is an ObservableList
+     * that is read with at least one constant index, null otherwise. Only the expressions
+     * reading an index in a changed range need to be invalidated, along with the ones reading
+     * the size if the size changed. The others are invalidated by any change.
+     */
+    @Nullable
+    public List<Expr> getRangeTrackedReads(Expr observable) {
+        return mRangeTrackedReads.get(observable);
+    }
+
+    @Nullable
+    private List<Expr> findRangeTrackedReads(Expr observable, ModelAnalyzer modelAnalyzer) {
+        if (observable.isBindingExpression() || !modelAnalyzer.getObservableListType()
+                .isAssignableFrom(observable.getResolvedType())) {
+            return null;
+        }
+        List<Expr> reads = new ArrayList<Expr>();
+        boolean hasIndexRead = false;
+        for (Expr parent : observable.getParents()) {
+            if (mExprMap.get(parent.getUniqueKey()) != parent) {
+                continue; // replaced while the model was updated
+            }
+            hasIndexRead |= parent.getConstantListIndex() >= 0;
+            reads.add(parent);
+        }
+        return hasIndexRead ? reads : null;
+    }
+
     /**
      * Give id to each expression. Will be useful if we serialize.
      */
@@ -468,6 +552,40 @@ public class ExprModel {
             }
         }
 
+        // constant key reads of observable maps and sparse collections get ids so that a change
+        // to one key only invalidates the expressions reading that key
+        for (Expr expr : observables) {
+            List<Expr> keyReads = findConstantKeyReads(expr, modelAnalyzer);
+            if (keyReads == null) {
+                continue;
+            }
+            mConstantKeyReads.put(expr, keyReads);
+            for (Expr keyRead : keyReads) {
+                if (!keyRead.hasId()) {
+                    flagMapping.add(keyRead.getUniqueKey());
+                    keyRead.setId(counter++);
+                    notifiableExpressions.add(keyRead);
+                }
+            }
+        }
+
+        // so do the reads of observable lists that are read with constant indices, so that a
+        // change to a range of items only invalidates the expressions that may read it
+        for (Expr expr : observables) {
+            List<Expr> reads = findRangeTrackedReads(expr, modelAnalyzer);
+            if (reads == null) {
+                continue;
+            }
+            mRangeTrackedReads.put(expr, reads);
+            for (Expr read : reads) {
+                if (!read.hasId()) {
+                    flagMapping.add(read.getUniqueKey());
+                    read.setId(counter++);
+                    notifiableExpressions.add(read);
+                }
+            }
+        }
+
         // now all 2-way bound view fields
         for (Expr expr : mExprMap.values()) {
             if (expr instanceof FieldAccessExpr) {
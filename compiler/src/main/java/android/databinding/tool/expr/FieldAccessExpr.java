@@ -395,6 +395,14 @@ public class FieldAccessExpr extends MethodBaseExpr {
         return parentPackage == null ? null : parentPackage + "." + mName;
     }
 
+    @Override
+    public String getConstantMapKey() {
+        if (mIsMap && getGetter() == null) {
+            return '"' + mName + '"';
+        }
+        return null;
+    }
+
     @Override
     protected KCode generateCode() {
         // once we can deprecate using Field.access for callbacks, we can get rid of this since
@@ -252,6 +252,11 @@ public class MethodCallExpr extends Expr {
         return mName;
     }
 
+    @Override
+    public boolean readsOnlySize() {
+        return getArgs().isEmpty() && ("size".equals(mName) || "isEmpty".equals(mName));
+    }
+
     public List<Expr> getArgs() {
         return getChildren().subList(1, getChildren().size());
     }
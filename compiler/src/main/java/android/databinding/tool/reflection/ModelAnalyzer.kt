@@ -47,6 +47,9 @@ abstract class ModelAnalyzer protected constructor(@JvmField val libTypes: LibTy
     val observableMapType  by lazy(LazyThreadSafetyMode.NONE) {
         loadClassErasure(libTypes.observableMap)!!
     }
+    val observableSparseCollectionType  by lazy(LazyThreadSafetyMode.NONE) {
+        loadClassErasure(libTypes.observableSparseCollection)
+    }
     val liveDataType  by lazy(LazyThreadSafetyMode.NONE) {
         loadClassErasure(libTypes.liveData)
     }
@@ -102,6 +105,22 @@ abstract class ModelAnalyzer protected constructor(@JvmField val libTypes: LibTy
                 .mapNotNull(this::loadClassErasure)
     }
 
+    private val primitiveListTypes by lazy(LazyThreadSafetyMode.NONE) {
+        libTypes.primitiveListClassNames.mapNotNull { (className, itemType) ->
+            loadClassErasure(className)?.let { it to loadPrimitive(itemType) }
+        }
+    }
+
+    /**
+     * Returns the item type of [modelClass] if it is one of the observable lists that keep
+     * their items in a primitive array, null otherwise.
+     */
+    fun findPrimitiveListItemType(modelClass: ModelClass): ModelClass? {
+        return primitiveListTypes.firstOrNull { (listType, _) ->
+            listType.isAssignableFrom(modelClass)
+        }?.second
+    }
+
     val observableFieldTypes by lazy(LazyThreadSafetyMode.NONE) {
         libTypes.observableFields
                 .mapNotNull(this::loadClassErasure)
@@ -45,7 +45,8 @@ abstract class ModelClass {
 
     /**
      * @return Whether or not this ModelClass can be treated as a List. This means
-     * it is a java.util.List, or one of the Sparse*Array classes.
+     * it is a java.util.List, one of the Sparse*Array classes, or one of the observable
+     * collections with int or long keys.
      */
     val isList by lazy(LazyThreadSafetyMode.NONE) {
         ModelAnalyzer.getInstance().listTypes.any {
@@ -176,6 +177,8 @@ abstract class ModelClass {
             return modelAnalyzer.observableType.isAssignableFrom(this) ||
                     modelAnalyzer.observableListType.isAssignableFrom(this) ||
                     modelAnalyzer.observableMapType.isAssignableFrom(this) ||
+                    (modelAnalyzer.observableSparseCollectionType?.isAssignableFrom(this)
+                            ?: false) ||
                     (modelAnalyzer.liveDataType?.isAssignableFrom(this) ?: false) ||
                     (modelAnalyzer.stateFlowType?.isAssignableFrom(this) ?: false)
         }
@@ -57,19 +57,43 @@ class GenerationalClassUtil constructor(
         }
     }
 
+    /**
+     * The artifact files in the input directory, grouped by their extension. The directory is
+     * only walked once, no matter how many kinds of artifacts are loaded from it.
+     */
+    private val artifactFiles by lazy(LazyThreadSafetyMode.NONE) {
+        val extensions = ExtensionFilter.values()
+        inputDir.walkTopDown().filter {
+            it.isFile
+        }.mapNotNull { file ->
+            extensions.firstOrNull { file.name.endsWith(it.ext) }?.let { Pair(it, file) }
+        }.groupBy({ it.first }, { it.second })
+    }
+
     /**
      * used for java code since it cannot call reified kotlin function.
      */
     fun <T : Any> load(ext : ExtensionFilter, klass : Class<T>) : List<T> {
-        return inputDir.walkTopDown().filter {
-            it.isFile && it.name.endsWith(ext.ext)
-        }.mapNotNull {
-            if (ext.isJson) {
-                it.bufferedReader(Charsets.UTF_8).use { reader -> GSON.fromJson(reader, klass) }
-            } else {
-                deserializeObject(it)
+        return loadLazily(ext, klass).mapNotNull { it.value }
+    }
+
+    /**
+     * Lists the artifacts of the given kind without reading them. Each one is read when its
+     * [Artifact.value] is first accessed, so callers that only need some of the packages do not
+     * pay for deserializing the others.
+     */
+    fun <T : Any> loadLazily(ext : ExtensionFilter, klass : Class<T>) : List<Artifact<T>> {
+        return artifactFiles[ext].orEmpty().map { file ->
+            Artifact(file.name.removeSuffix(ext.ext)) {
+                if (ext.isJson) {
+                    file.bufferedReader(Charsets.UTF_8).use { reader ->
+                        GSON.fromJson(reader, klass)
+                    }
+                } else {
+                    deserializeObject<T>(file)
+                }
             }
-        }.toList()
+        }
     }
 
     @Suppress("unused")
@@ -104,7 +128,7 @@ class GenerationalClassUtil constructor(
     @Suppress("UNCHECKED_CAST")
     private fun<T> deserializeObject(file: File) : T? {
         try {
-            file.inputStream().use {
+            file.inputStream().buffered().use {
                 val `in` = IgnoreSerialIdObjectInputStream(it)
                 return `in`.readObject() as T
             }
@@ -131,6 +155,13 @@ class GenerationalClassUtil constructor(
         return null
     }
 
+    /**
+     * An artifact written by the dependency for package [pkg], read on first access.
+     */
+    class Artifact<T : Any>(val pkg: String, reader: () -> T?) {
+        val value: T? by lazy(LazyThreadSafetyMode.NONE, reader)
+    }
+
     enum class ExtensionFilter(val ext : String, val isJson : Boolean) {
         SETTER_STORE_JSON("-setter_store.json", true),
         BR("-br.bin", false),
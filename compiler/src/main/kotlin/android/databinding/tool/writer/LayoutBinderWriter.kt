@@ -19,14 +19,17 @@ import android.databinding.tool.CallbackWrapper
 import android.databinding.tool.InverseBinding
 import android.databinding.tool.LayoutBinder
 import android.databinding.tool.LibTypes
+import android.databinding.tool.expr.BracketExpr
 import android.databinding.tool.expr.Expr
 import android.databinding.tool.expr.ExprModel
 import android.databinding.tool.expr.FieldAccessExpr
 import android.databinding.tool.expr.IdentifierExpr
 import android.databinding.tool.expr.LambdaExpr
 import android.databinding.tool.expr.ListenerExpr
+import android.databinding.tool.expr.MethodCallExpr
 import android.databinding.tool.expr.ResourceExpr
 import android.databinding.tool.expr.TernaryExpr
+import android.databinding.tool.expr.ViewFieldExpr
 import android.databinding.tool.expr.localizeGlobalVariables
 import android.databinding.tool.expr.shouldLocalizeInCallbacks
 import android.databinding.tool.expr.toCode
@@ -234,6 +237,14 @@ val Expr.onChangeName by lazyProp { expr: Expr ->
     expr.model.getUniqueMethodName("onChange${expr.readableName.capitalizeUS()}", false)
 }
 
+val Expr.onKeyChangeName by lazyProp { expr: Expr ->
+    expr.model.getUniqueMethodName("onKeyChange${expr.readableName.capitalizeUS()}", false)
+}
+
+val Expr.onRangeChangeName by lazyProp { expr: Expr ->
+    expr.model.getUniqueMethodName("onRangeChange${expr.readableName.capitalizeUS()}", false)
+}
+
 val Expr.getterName by lazyProp { expr: Expr ->
     expr.model.getUniqueMethodName("get${expr.readableName.capitalizeUS()}", true)
 }
@@ -357,7 +368,82 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
         model.exprMap.values.filterIsInstance(LambdaExpr::class.java)
     }
 
-    fun write(minSdk: kotlin.Int): String {
+    var options = LayoutBinderWriterOptions()
+
+    /**
+     * Whether executeBindings is split into evaluateBindings and applyBindings. Layouts that
+     * read views in their expressions are always evaluated on the main thread.
+     */
+    val twoPhaseBindings by lazy {
+        options.twoPhaseBindings && model.pendingExpressions.none { it is ViewFieldExpr }
+    }
+
+    /**
+     * Whether the binding is only used from its main thread, so its dirty flags are plain
+     * fields. Bindings evaluated in the background still need to synchronize.
+     */
+    val mainThreadOnly by lazy {
+        options.mainThreadOnly && !twoPhaseBindings
+    }
+
+    /**
+     * Whether the dirty flags are volatile fields updated with compare-and-set instead of
+     * fields guarded by the binding's lock. Each bucket is updated atomically on its own.
+     */
+    val atomicDirtyFlags
+        get() = options.atomicDirtyFlags && !mainThreadOnly
+
+    /**
+     * Adds code that reads or writes the dirty flags, synchronized on [lock] unless the dirty
+     * flags are atomic or the binding is main thread only.
+     */
+    private fun KCode.withDirtyFlagsLock(lock: String = "this", init: KCode.() -> Unit) {
+        if (atomicDirtyFlags || mainThreadOnly) {
+            nl(kcode(null, init))
+        } else {
+            block("synchronized($lock)", init)
+        }
+    }
+
+    /**
+     * The statement that sets the bits of [value] in the dirty flags bucket [index].
+     */
+    private fun orDirtyFlags(index: kotlin.Int, value: String) = if (atomicDirtyFlags) {
+        "${dirtyFlagsOrMethod(index)}($value);"
+    } else {
+        "${mDirtyFlags.localValue(index)} |= $value;"
+    }
+
+    private fun dirtyFlagsUpdater(index: kotlin.Int) =
+            "s${mDirtyFlags.localName.removePrefix("m")}Updater${getWordSuffix(index)}"
+
+    private fun dirtyFlagsOrMethod(index: kotlin.Int) =
+            "or${mDirtyFlags.localName.removePrefix("m")}${getWordSuffix(index)}"
+
+    /**
+     * The child index path of each bound View, by binding index, or null when mapBindings must
+     * find the Views by their tags. Layouts with includes always use the tags because an include
+     * may add any number of Views.
+     */
+    val viewPaths by lazy {
+        val targets = layoutBinder.bindingTargets.filter { it.isUsed }
+        if (targets.any { it.includedLayout != null || it.viewPath == null }) {
+            null
+        } else {
+            val paths = arrayOfNulls<String>(maxIndex() + 1)
+            targets.forEach { paths[indices[it]!!] = it.viewPath }
+            paths.toList()
+        }
+    }
+
+    /**
+     * Observables whose registration is deferred from evaluateBindings to applyBindings, with
+     * the name of the flag that records whether they were read.
+     */
+    private val deferredRegistrations = LinkedHashMap<Expr, String>()
+
+    fun write(minSdk: kotlin.Int, options: LayoutBinderWriterOptions): String {
+        this.options = options
         Scope.reset()
         layoutBinder.resolveWhichExpressionsAreUsed()
         calculateIndices();
@@ -388,11 +474,16 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
                 }
                 nl(declareConstructor(minSdk))
                 nl(declareInvalidateAll())
+                nl(declareResetForReuse())
                 nl(declareHasPendingBindings())
                 nl(declareSetVariable())
                 nl(variableSettersAndGetters())
                 nl(declareSetLifecycleOwnerOverride())
                 nl(onFieldChange())
+                nl(onMapKeyChange())
+                nl(onSparseKeyChange())
+                nl(onListRangeChange())
+                nl(declareObservedPropertyIds())
                 try {
                     Scope.enter(Scope.GLOBAL)
                     nl(executePendingBindings())
@@ -512,6 +603,20 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
             }
         }
         nl("}")
+        viewPaths?.let { paths ->
+            nl("private static final int[][] sViewPaths = new int[][] {") {
+                paths.forEach {
+                    tab(if (it == null) "null," else "new int[] {$it},")
+                }
+            }
+            nl("};")
+        }
+    }
+
+    fun mapBindingsCall(bindingCount: kotlin.Int) = if (viewPaths == null) {
+        "mapBindings(bindingComponent, root, $bindingCount, sIncludes, sViewsWithIds)"
+    } else {
+        "mapBindings(bindingComponent, root, $bindingCount, sIncludes, sViewsWithIds, sViewPaths)"
     }
 
     fun maxIndex(): kotlin.Int {
@@ -538,7 +643,7 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
         if (hasBaseBinder) {
             nl("")
             nl("public $className(@Nullable ${libTypes.dataBindingComponent} bindingComponent, @NonNull $parameterType root) {") {
-                tab("this(bindingComponent, root, mapBindings(bindingComponent, root, $bindingCount, sIncludes, sViewsWithIds));")
+                tab("this(bindingComponent, root, ${mapBindingsCall(bindingCount)});")
             }
             nl("}")
             nl("private $className(${libTypes.dataBindingComponent} bindingComponent, $parameterType root, Object[] bindings) {") {
@@ -552,7 +657,7 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
         } else {
             nl("public $baseClassName(@NonNull ${libTypes.dataBindingComponent} bindingComponent, @NonNull $parameterType root) {") {
                 tab("super(bindingComponent, $superParam, ${model.observables.size});")
-                tab("final Object[] bindings = mapBindings(bindingComponent, root, $bindingCount, sIncludes, sViewsWithIds);")
+                tab("final Object[] bindings = ${mapBindingsCall(bindingCount)};")
             }
         }
         if (layoutBinder.requiredComponent != null) {
@@ -596,6 +701,9 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
             }
         }
         tab("setRootTag(root);")
+        if (mainThreadOnly) {
+            tab("setMainThreadOnly();")
+        }
         tab(declareCallbackInstances())
         tab("invalidateAll();");
         nl("}")
@@ -685,7 +793,7 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
         block("public void invalidateAll()") {
             val fs = FlagSet(layoutBinder.model.invalidateAnyBitSet,
                     layoutBinder.model.flagBucketCount);
-            block("synchronized(this)") {
+            withDirtyFlagsLock {
                 for (i in (0..(mDirtyFlags.buckets.size - 1))) {
                     tab("${mDirtyFlags.localValue(i)} = ${fs.localValue(i)};")
                 }
@@ -697,20 +805,47 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
         }
     }
 
+    fun declareResetForReuse() = kcode("") {
+        nl("@Override")
+        block("public void resetForReuse()") {
+            nl("super.resetForReuse();")
+            val fs = FlagSet(layoutBinder.model.invalidateAnyBitSet,
+                    layoutBinder.model.flagBucketCount);
+            withDirtyFlagsLock {
+                for (i in (0..(mDirtyFlags.buckets.size - 1))) {
+                    tab("${mDirtyFlags.localValue(i)} = ${fs.localValue(i)};")
+                }
+            }
+            variables.filter { it.userDefinedType != null }.forEach {
+                nl("this.${it.fieldName} = ${it.resolvedType.defaultValue()};")
+            }
+            includedBinders.filter { it.isUsed }.forEach { binder ->
+                nl("${binder.fieldName}.resetForReuse();")
+            }
+        }
+    }
+
     fun declareHasPendingBindings() = kcode("") {
         nl("@Override")
         nl("public boolean hasPendingBindings() {") {
             if (mDirtyFlags.buckets.size > 0) {
-                tab("synchronized(this) {") {
-                    val flagCheck = 0.rangeTo(mDirtyFlags.buckets.size - 1).map {
-                        "${mDirtyFlags.localValue(it)} != 0"
-                    }.joinToString(" || ")
+                val flagCheck = 0.rangeTo(mDirtyFlags.buckets.size - 1).map {
+                    "${mDirtyFlags.localValue(it)} != 0"
+                }.joinToString(" || ")
+                if (atomicDirtyFlags || mainThreadOnly) {
                     tab("if ($flagCheck) {") {
                         tab("return true;")
                     }
                     tab("}")
+                } else {
+                    tab("synchronized(this) {") {
+                        tab("if ($flagCheck) {") {
+                            tab("return true;")
+                        }
+                        tab("}")
+                    }
+                    tab("}")
                 }
-                tab("}")
             }
             includedBinders.filter { it.isUsed }.forEach { binder ->
                 tab("if (${binder.fieldName}.hasPendingBindings()) {") {
@@ -760,9 +895,9 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
                     if (used) {
                         // set dirty flags!
                         val flagSet = it.invalidateFlagSet
-                        block("synchronized(this)") {
-                            mDirtyFlags.mapOr(flagSet) { suffix, index ->
-                                nl("${mDirtyFlags.localName}$suffix |= ${flagSet.localValue(index)};")
+                        withDirtyFlagsLock {
+                            mDirtyFlags.mapOr(flagSet) { _, index ->
+                                nl(orDirtyFlags(index, flagSet.localValue(index)))
                             }
                         }
                         nl("notifyPropertyChanged(${it.name.br()});")
@@ -824,40 +959,240 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
                         flagSet = it.invalidateFlagSet
                     }
 
-                    block("synchronized(this)") {
-                        mDirtyFlags.mapOr(flagSet) { suffix, index ->
-                            tab("${mDirtyFlags.localName}$suffix |= ${flagSet.localValue(index)};")
+                    withDirtyFlagsLock {
+                        mDirtyFlags.mapOr(flagSet) { _, index ->
+                            tab(orDirtyFlags(index, flagSet.localValue(index)))
                         }
                     }
                     nl("return true;")
                 }
 
-                val accessedFields: List<FieldAccessExpr> = it.parents.filterIsInstance(FieldAccessExpr::class.java)
-                accessedFields.filter { it.isUsed && it.hasBindableAnnotations() }
-                        .flatMap { expr -> expr.dirtyingProperties.map { Pair(it, expr) } }
-                        .groupBy { it.first }
-                        .forEach {
-                            // If two expressions look different but resolve to the same method,
-                            // we are not yet able to merge them. This is why we merge their
-                            // flags below.
-                            block("else if (fieldId == ${it.key})") {
-                                block("synchronized(this)") {
-                                    val flagSet = it.value.foldRight(FlagSet()) { l, r -> l.second.invalidateFlagSet.or(r) }
-
-                                    mDirtyFlags.mapOr(flagSet) { _, index ->
-                                        tab("${mDirtyFlags.localValue(index)} |= ${flagSet.localValue(index)};")
-                                    }
-                                }
-                                nl("return true;")
+                bindablePropertyDependents(it).forEach {
+                    // If two expressions look different but resolve to the same method,
+                    // we are not yet able to merge them. This is why we merge their
+                    // flags below.
+                    block("else if (fieldId == ${it.key})") {
+                        withDirtyFlagsLock {
+                            val flagSet = it.value.foldRight(FlagSet()) { l, r -> l.second.invalidateFlagSet.or(r) }
+
+                            mDirtyFlags.mapOr(flagSet) { _, index ->
+                                tab(orDirtyFlags(index, flagSet.localValue(index)))
                             }
+                        }
+                        nl("return true;")
+                    }
+                }
+                nl("return false;")
+            }
+            nl("")
+        }
+    }
 
+    /**
+     * Overrides onMapKeyChange for the observed maps that are only read with constant keys, so
+     * that a change to one key only invalidates the expressions reading that key.
+     */
+    fun onMapKeyChange() = kcode("") {
+        val keyedMaps = model.observables
+                .filterNot { ExprModel.isSparseCollection(it) }
+                .mapNotNull { map ->
+                    model.getConstantKeyReads(map)
+                            ?.filter { it.isUsed }
+                            ?.takeIf { it.isNotEmpty() }
+                            ?.let { reads -> map to reads.groupBy { it.constantMapKey } }
+                }
+        if (keyedMaps.isEmpty()) {
+            return@kcode
+        }
+        nl("@Override")
+        nl("protected boolean onMapKeyChange(int localFieldId, Object object, Object key) {") {
+            tab("switch (localFieldId) {") {
+                keyedMaps.forEach { (map, _) ->
+                    tab("case ${map.id} :") {
+                        tab("return ${map.onKeyChangeName}((${map.resolvedType.toJavaCode()}) object, key);")
+                    }
+                }
+            }
+            tab("}")
+            tab("return super.onMapKeyChange(localFieldId, object, key);")
+        }
+        nl("}")
+        nl("")
+
+        keyedMaps.forEach { (map, readsByKey) ->
+            block("private boolean ${map.onKeyChangeName}(${map.resolvedType.toJavaCode()} ${map.readableName}, Object key)") {
+                block("if (key == null)") {
+                    nl("return ${map.onChangeName}(${map.readableName}, ${"".br()});")
+                }
+                readsByKey.forEach { (key, reads) ->
+                    val flagSet = reads.map { it.invalidateFlagSet }.reduce { l, r -> l.or(r) }
+                    block("else if ($key.equals(key))") {
+                        withDirtyFlagsLock {
+                            mDirtyFlags.mapOr(flagSet) { _, index ->
+                                tab(orDirtyFlags(index, flagSet.localValue(index)))
+                            }
                         }
+                        nl("return true;")
+                    }
+                }
                 nl("return false;")
             }
             nl("")
         }
     }
 
+    /**
+     * Overrides onSparseKeyChange for the observed sparse collections that are only read with
+     * constant keys, so that a change to one key only invalidates the expressions reading that
+     * key.
+     */
+    fun onSparseKeyChange() = kcode("") {
+        val keyedCollections = model.observables
+                .filter { ExprModel.isSparseCollection(it) }
+                .mapNotNull { collection ->
+                    model.getConstantKeyReads(collection)
+                            ?.filter { it.isUsed }
+                            ?.takeIf { it.isNotEmpty() }
+                            ?.let { reads -> collection to reads.groupBy { it.constantSparseKey } }
+                }
+        if (keyedCollections.isEmpty()) {
+            return@kcode
+        }
+        nl("@Override")
+        nl("protected boolean onSparseKeyChange(int localFieldId, Object object, long key) {") {
+            tab("switch (localFieldId) {") {
+                keyedCollections.forEach { (collection, _) ->
+                    tab("case ${collection.id} :") {
+                        tab("return ${collection.onKeyChangeName}((${collection.resolvedType.toJavaCode()}) object, key);")
+                    }
+                }
+            }
+            tab("}")
+            tab("return super.onSparseKeyChange(localFieldId, object, key);")
+        }
+        nl("}")
+        nl("")
+
+        keyedCollections.forEach { (collection, readsByKey) ->
+            block("private boolean ${collection.onKeyChangeName}(${collection.resolvedType.toJavaCode()} ${collection.readableName}, long key)") {
+                readsByKey.forEach { (key, reads) ->
+                    val flagSet = reads.map { it.invalidateFlagSet }.reduce { l, r -> l.or(r) }
+                    block("if (key == $key)") {
+                        withDirtyFlagsLock {
+                            mDirtyFlags.mapOr(flagSet) { _, index ->
+                                tab(orDirtyFlags(index, flagSet.localValue(index)))
+                            }
+                        }
+                        nl("return true;")
+                    }
+                }
+                nl("return false;")
+            }
+            nl("")
+        }
+    }
+
+    /**
+     * Overrides onListRangeChange for the observed lists that are read with constant indices, so
+     * that a change to a range of items only invalidates the expressions that may read it.
+     */
+    fun onListRangeChange() = kcode("") {
+        val trackedLists = model.observables.mapNotNull { list ->
+            model.getRangeTrackedReads(list)
+                    ?.filter { it.isUsed }
+                    ?.takeIf { reads -> reads.any { it.constantListIndex >= 0 } }
+                    ?.let { list to it }
+        }
+        if (trackedLists.isEmpty()) {
+            return@kcode
+        }
+        nl("@Override")
+        nl("protected boolean onListRangeChange(int localFieldId, Object object, int start, int end, boolean sizeChanged) {") {
+            tab("switch (localFieldId) {") {
+                trackedLists.forEach { (list, _) ->
+                    tab("case ${list.id} :") {
+                        tab("return ${list.onRangeChangeName}((${list.resolvedType.toJavaCode()}) object, start, end, sizeChanged);")
+                    }
+                }
+            }
+            tab("}")
+            tab("return super.onListRangeChange(localFieldId, object, start, end, sizeChanged);")
+        }
+        nl("}")
+        nl("")
+
+        trackedLists.forEach { (list, reads) ->
+            val readsByIndex = reads.filter { it.constantListIndex >= 0 }
+                    .groupBy { it.constantListIndex }.toSortedMap()
+            val sizeReads = reads.filter { it.constantListIndex < 0 && it.readsOnlySize() }
+            val otherReads = reads.filter { it.constantListIndex < 0 && !it.readsOnlySize() }
+            fun KCode.invalidate(exprs: List<Expr>) {
+                val flagSet = exprs.map { it.invalidateFlagSet }.reduce { l, r -> l.or(r) }
+                mDirtyFlags.mapOr(flagSet) { _, index ->
+                    tab(orDirtyFlags(index, flagSet.localValue(index)))
+                }
+                nl("changed = true;")
+            }
+            block("private boolean ${list.onRangeChangeName}(${list.resolvedType.toJavaCode()} ${list.readableName}, int start, int end, boolean sizeChanged)") {
+                nl("boolean changed = false;")
+                withDirtyFlagsLock {
+                    readsByIndex.forEach { (index, indexReads) ->
+                        block("if (start <= $index && $index < end)") {
+                            invalidate(indexReads)
+                        }
+                    }
+                    if (sizeReads.isNotEmpty()) {
+                        block("if (sizeChanged)") {
+                            invalidate(sizeReads)
+                        }
+                    }
+                    if (otherReads.isNotEmpty()) {
+                        invalidate(otherReads)
+                    }
+                }
+                nl("return changed;")
+            }
+            nl("")
+        }
+    }
+
+    /**
+     * Groups the bindable fields read from an observable by the BR ids that invalidate them.
+     */
+    private fun bindablePropertyDependents(observable: Expr): Map<String, List<Pair<String, FieldAccessExpr>>> {
+        val accessedFields: List<FieldAccessExpr> = observable.parents.filterIsInstance(FieldAccessExpr::class.java)
+        return accessedFields.filter { it.isUsed && it.hasBindableAnnotations() }
+                .flatMap { expr -> expr.dirtyingProperties.map { Pair(it, expr) } }
+                .groupBy { it.first }
+    }
+
+    /**
+     * Lists the BR ids each observed Observable's onChange method reacts to, so that its
+     * listener is only notified about those properties and BR._all.
+     */
+    fun declareObservedPropertyIds() = kcode("") {
+        val observableType = ModelAnalyzer.getInstance().observableType
+        val propertyObservables = model.observables.filter {
+            observableType.isAssignableFrom(it.resolvedType)
+        }
+        if (propertyObservables.isNotEmpty()) {
+            nl("@Override")
+            nl("protected int[] getObservedPropertyIds(int localFieldId) {") {
+                tab("switch (localFieldId) {") {
+                    propertyObservables.forEach {
+                        val propertyIds = bindablePropertyDependents(it).keys
+                        tab("case ${it.id} :") {
+                            tab("return new int[] {${propertyIds.joinToString(", ")}};")
+                        }
+                    }
+                }
+                tab("}")
+                tab("return null;")
+            }
+            nl("}")
+        }
+    }
+
     fun declareViews() = kcode("// views") {
         layoutBinder.sortedTargets.filter {it.isUsed && (!hasBaseBinder || it.id == null)}.forEach {
             val access = if (!hasBaseBinder && it.id != null) {
@@ -933,12 +1268,12 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
                             nl(inverseBinding.callbackExprModel.localizeGlobalVariables(valueExpr))
                             nl(inverseBinding.executionPath.toCode())
                         } else {
-                            block("synchronized($className.this)") {
+                            withDirtyFlagsLock("$className.this") {
                                 val flagSet = inverseBinding.chainedExpressions.fold(FlagSet(), { initial, expr ->
                                     initial.or(FlagSet(expr.id))
                                 })
                                 mDirtyFlags.mapOr(flagSet) { _, index ->
-                                    tab("${mDirtyFlags.localValue(index)} |= ${flagSet.binaryCode(index)};")
+                                    tab(orDirtyFlags(index, flagSet.binaryCode(index)))
                                 }
                             }
                             nl("requestRebind();")
@@ -953,10 +1288,31 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
         model.ext.localizedFlags.forEach { flag ->
             flag.notEmpty { suffix, value ->
                 nl("private")
+                if (flag === mDirtyFlags && atomicDirtyFlags) {
+                    app(" ", "volatile")
+                }
                 app(" ", if (flag.isDynamic) null else "static final");
                 app(" ", " ${flag.type} ${flag.localName}$suffix = ${longToBinary(value)};")
             }
         }
+        if (atomicDirtyFlags) {
+            val updaterType = "java.util.concurrent.atomic.AtomicLongFieldUpdater"
+            for (i in (0 until mDirtyFlags.buckets.size)) {
+                val field = mDirtyFlags.localValue(i)
+                nl("private static final $updaterType<$className> ${dirtyFlagsUpdater(i)} =") {
+                    tab("$updaterType.newUpdater($className.class, \"$field\");")
+                }
+            }
+            for (i in (0 until mDirtyFlags.buckets.size)) {
+                block("private void ${dirtyFlagsOrMethod(i)}(long flags)") {
+                    nl("long current;")
+                    nl("do {") {
+                        tab("current = ${mDirtyFlags.localValue(i)};")
+                    }
+                    nl("} while (!${dirtyFlagsUpdater(i)}.compareAndSet(this, current, current | flags));")
+                }
+            }
+        }
     }
 
     fun flagMapping() = kcode("/* flag mapping") {
@@ -970,98 +1326,263 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
     }
 
     fun executePendingBindings() = kcode("") {
-        nl("@Override")
-        block("protected void executeBindings()") {
-            val tmpDirtyFlags = FlagSet(mDirtyFlags.buckets)
-            tmpDirtyFlags.localName = "dirtyFlags";
+        val tmpDirtyFlags = FlagSet(mDirtyFlags.buckets)
+        tmpDirtyFlags.localName = "dirtyFlags";
+        val locals = model.pendingExpressions.filter { it.needsLocalField }
+        val readCode = readPendingExpressions(tmpDirtyFlags)
+        val evaluation = kcode("") {
             for (i in (0 until mDirtyFlags.buckets.size)) {
                 nl("${tmpDirtyFlags.type} ${tmpDirtyFlags.localValue(i)} = 0;")
             }
-            block("synchronized(this)") {
+            if (atomicDirtyFlags) {
                 for (i in (0 until mDirtyFlags.buckets.size)) {
-                    nl("${tmpDirtyFlags.localValue(i)} = ${mDirtyFlags.localValue(i)};")
-                    nl("${mDirtyFlags.localValue(i)} = 0;")
+                    nl("${tmpDirtyFlags.localValue(i)} = ${dirtyFlagsUpdater(i)}.getAndSet(this, 0);")
+                }
+            } else {
+                withDirtyFlagsLock {
+                    for (i in (0 until mDirtyFlags.buckets.size)) {
+                        nl("${tmpDirtyFlags.localValue(i)} = ${mDirtyFlags.localValue(i)};")
+                        nl("${mDirtyFlags.localValue(i)} = 0;")
+                    }
                 }
             }
-            model.pendingExpressions.filter { it.needsLocalField }.forEach {
+            locals.forEach {
                 nl("${it.resolvedType.toDeclarationCode()} ${it.executePendingLocalName} = ${if (it.isVariable()) it.fieldName else it.defaultValue};")
             }
-            L.d("writing executePendingBindings for %s", className)
-            do {
-                val batch = ExprModel.filterShouldRead(model.pendingExpressions)
-                val justRead = arrayListOf<Expr>()
-                L.d("batch: %s", batch)
-                while (!batch.none()) {
-                    val readNow = batch.filter { it.shouldReadNow(justRead) }
-                    if (readNow.isEmpty()) {
-                        throw IllegalStateException("do not know what I can read. bailing out ${batch.joinToString("\n")}")
+            deferredRegistrations.values.forEach {
+                nl("boolean $it = false;")
+            }
+            nl(readCode)
+        }
+        val apply = applyBindingValues(tmpDirtyFlags)
+        if (!twoPhaseBindings) {
+            nl("@Override")
+            block("protected void executeBindings()") {
+                nl(evaluation)
+                nl(apply)
+            }
+            return@kcode
+        }
+        val valuesClass = model.getUniqueFieldName("EvaluatedValues", false)
+        nl("@Override")
+        block("protected void executeBindings()") {
+            nl("applyBindings(evaluateBindings());")
+        }
+        nl("@Override")
+        block("protected boolean supportsBackgroundEvaluation()") {
+            nl("return true;")
+        }
+        nl("@Override")
+        block("protected Object evaluateBindings()") {
+            nl(evaluation)
+            nl("$valuesClass values = new $valuesClass();")
+            for (i in (0 until mDirtyFlags.buckets.size)) {
+                nl("values.${tmpDirtyFlags.localValue(i)} = ${tmpDirtyFlags.localValue(i)};")
+            }
+            locals.forEach {
+                nl("values.${it.executePendingLocalName} = ${it.executePendingLocalName};")
+            }
+            deferredRegistrations.values.forEach {
+                nl("values.$it = $it;")
+            }
+            nl("return values;")
+        }
+        // observables whose values must be compared with the evaluated ones once observed
+        val checks = deferredRegistrations.mapNotNull { (expr, flag) ->
+            val changes = valueChangesSinceEvaluation(expr, locals)
+            if (changes == null || changes.isEmpty()) null else Triple(expr, flag, changes)
+        }
+        val checkValues = model.ext.getUniqueName("checkEvaluatedValues",
+                Scope.EXECUTE_PENDING_METHOD, false)
+        nl("@Override")
+        block("protected void applyBindings(Object evaluatedValues)") {
+            nl("$valuesClass values = ($valuesClass) evaluatedValues;")
+            for (i in (0 until mDirtyFlags.buckets.size)) {
+                nl("${tmpDirtyFlags.type} ${tmpDirtyFlags.localValue(i)} = values.${tmpDirtyFlags.localValue(i)};")
+            }
+            locals.forEach {
+                nl("${it.resolvedType.toDeclarationCode()} ${it.executePendingLocalName} = values.${it.executePendingLocalName};")
+            }
+            if (checks.isNotEmpty()) {
+                nl("boolean $checkValues = false;")
+            }
+            deferredRegistrations.forEach { (expr, flag) ->
+                val local = expr.executePendingLocalName
+                val registration = expr.getUpdateRegistrationCall(expr.id, local)
+                val changes = valueChangesSinceEvaluation(expr, locals)
+                if (changes != null && changes.isEmpty()) {
+                    block("if (values.$flag)") {
+                        nl(registration)
+                    }
+                    return@forEach
+                }
+                if (changes == null) {
+                    block("if (values.$flag && ${registration.removeSuffix(";")} && $local != null && isApplyingEvaluation())") {
+                        nl("handleRegistrationAfterEvaluation(${expr.id}, $local);")
                     }
-                    L.d("new read now. batch size: %d, readNow size: %d", batch.size, readNow.size)
-                    nl(readWithDependants(readNow, justRead, batch, tmpDirtyFlags))
-                    batch.removeAll(justRead)
+                    return@forEach
                 }
-                nl("// batch finished")
-            } while (model.markBitsRead())
-            // verify everything is read.
+                // from now on, values.$flag tells checkEvaluatedValues to compare the values
+                block("if (values.$flag)") {
+                    nl("values.$flag = ${registration.removeSuffix(";")} && $local != null && isApplyingEvaluation();")
+                    nl("$checkValues |= values.$flag;")
+                }
+            }
+            nl(apply)
+            if (checks.isNotEmpty()) {
+                block("if ($checkValues)") {
+                    nl("scheduleEvaluationCheck(values);")
+                }
+            }
+        }
+        if (checks.isNotEmpty()) {
+            nl("@Override")
+            block("protected void checkEvaluatedValues(Object evaluatedValues)") {
+                nl("$valuesClass values = ($valuesClass) evaluatedValues;")
+                for (i in (0 until mDirtyFlags.buckets.size)) {
+                    nl("${tmpDirtyFlags.type} ${tmpDirtyFlags.localValue(i)} = values.${tmpDirtyFlags.localValue(i)};")
+                }
+                locals.forEach {
+                    nl("${it.resolvedType.toDeclarationCode()} ${it.executePendingLocalName} = values.${it.executePendingLocalName};")
+                }
+                checks.forEach { (expr, flag, changes) ->
+                    block("if (values.$flag && (${changes.joinToString(" || ")}))") {
+                        nl("handleRegistrationAfterEvaluation(${expr.id}, ${expr.executePendingLocalName});")
+                    }
+                }
+            }
+        }
+        block("private static class $valuesClass") {
+            for (i in (0 until mDirtyFlags.buckets.size)) {
+                nl("${tmpDirtyFlags.type} ${tmpDirtyFlags.localValue(i)};")
+            }
+            locals.forEach {
+                nl("${it.resolvedType.toDeclarationCode()} ${it.executePendingLocalName};")
+            }
+            deferredRegistrations.values.forEach {
+                nl("boolean $it;")
+            }
+        }
+    }
+
+    /**
+     * Returns the conditions under which the values that evaluateBindings read from the
+     * observable [expr] differ from its current values, or null if they cannot be compared and
+     * the observable must be treated as changed. Only getters, method calls and collection reads
+     * are compared; they are evaluated again on the evaluation executor, in
+     * checkEvaluatedValues, with the locals restored from the evaluated values.
+     */
+    private fun valueChangesSinceEvaluation(expr: Expr, locals: List<Expr>): List<String>? {
+        val readers = expr.dependants.map { it.dependant }.distinct()
+        if (readers.any {
+            (it !is FieldAccessExpr && it !is MethodCallExpr && it !is BracketExpr) ||
+                    !locals.contains(it)
+        }) {
+            return null
+        }
+        return readers.map { reader ->
+            val evaluated = reader.executePendingLocalName
+            val current = reader.toFullCode().generate()
+            val type = reader.resolvedType
+            val changed = if (type.isPrimitive && type.isFloat) {
+                // unlike ==, compare() finds NaN equal to itself
+                "Float.compare($evaluated, $current) != 0"
+            } else if (type.isPrimitive && type.isDouble) {
+                "Double.compare($evaluated, $current) != 0"
+            } else if (type.isPrimitive) {
+                "$evaluated != $current"
+            } else {
+                "hasValueChanged($evaluated, $current)"
+            }
+            val condition = condition(reader)
+            if (condition == null) "($changed)" else "($condition && $changed)"
+        }
+    }
+
+    /**
+     * Returns the code that reads the dirty expressions into their local variables.
+     */
+    private fun readPendingExpressions(tmpDirtyFlags: FlagSet) = kcode("") {
+        L.d("writing executePendingBindings for %s", className)
+        do {
             val batch = ExprModel.filterShouldRead(model.pendingExpressions)
-            if (batch.isNotEmpty()) {
-                L.e("could not generate code for %s. This might be caused by circular dependencies."
-                        + "Please report on b.android.com. %d %s %s", layoutBinder.layoutname,
-                        batch.size, batch[0], batch[0].toCode().generate())
-            }
-            //
-            layoutBinder.sortedTargets.filter { it.isUsed }
-                    .flatMap { it.bindings }
-                    .groupBy {
-                        tmpDirtyFlags.mapOr(it.expr.dirtyFlagSet) { _, index ->
-                            "(${tmpDirtyFlags.localValue(index)} & ${it.expr.dirtyFlagSet.localValue(index)}) != 0"
-                        }.joinToString(" || ")
-                    }.forEach {
-                block("if (${it.key})") {
-                    it.value.groupBy { Math.max(1, it.minApi) }.forEach {
-                        val setterValues = kcode("") {
-                            it.value.forEach { binding ->
-                                nl(binding.toAssignmentCode()).app(";")
-                            }
+            val justRead = arrayListOf<Expr>()
+            L.d("batch: %s", batch)
+            while (!batch.none()) {
+                val readNow = batch.filter { it.shouldReadNow(justRead) }
+                if (readNow.isEmpty()) {
+                    throw IllegalStateException("do not know what I can read. bailing out ${batch.joinToString("\n")}")
+                }
+                L.d("new read now. batch size: %d, readNow size: %d", batch.size, readNow.size)
+                nl(readWithDependants(readNow, justRead, batch, tmpDirtyFlags))
+                batch.removeAll(justRead)
+            }
+            nl("// batch finished")
+        } while (model.markBitsRead())
+        // verify everything is read.
+        val batch = ExprModel.filterShouldRead(model.pendingExpressions)
+        if (batch.isNotEmpty()) {
+            L.e("could not generate code for %s. This might be caused by circular dependencies."
+                    + "Please report on b.android.com. %d %s %s", layoutBinder.layoutname,
+                    batch.size, batch[0], batch[0].toCode().generate())
+        }
+    }
+
+    /**
+     * Returns the code that sets the values of the dirty expressions on the views.
+     */
+    private fun applyBindingValues(tmpDirtyFlags: FlagSet) = kcode("") {
+        layoutBinder.sortedTargets.filter { it.isUsed }
+                .flatMap { it.bindings }
+                .groupBy {
+                    tmpDirtyFlags.mapOr(it.expr.dirtyFlagSet) { _, index ->
+                        "(${tmpDirtyFlags.localValue(index)} & ${it.expr.dirtyFlagSet.localValue(index)}) != 0"
+                    }.joinToString(" || ")
+                }.forEach {
+            block("if (${it.key})") {
+                it.value.groupBy { Math.max(1, it.minApi) }.forEach {
+                    val setterValues = kcode("") {
+                        it.value.forEach { binding ->
+                            nl(binding.toAssignmentCode()).app(";")
                         }
-                        nl("// api target ${it.key}")
-                        if (it.key > 1) {
-                            block("if(getBuildSdkInt() >= ${it.key})") {
-                                nl(setterValues)
-                            }
-                        } else {
+                    }
+                    nl("// api target ${it.key}")
+                    if (it.key > 1) {
+                        block("if(getBuildSdkInt() >= ${it.key})") {
                             nl(setterValues)
                         }
+                    } else {
+                        nl(setterValues)
                     }
                 }
             }
+        }
 
 
-            layoutBinder.sortedTargets.filter { it.isUsed }
-                    .flatMap { it.bindings }
-                    .filter { it.requiresOldValue() }
-                    .groupBy {
-                        tmpDirtyFlags.mapOr(it.expr.dirtyFlagSet) { _, index ->
-                            "(${tmpDirtyFlags.localValue(index)} & ${it.expr.dirtyFlagSet.localValue(index)}) != 0"
-                        }.joinToString(" || ")
-                    }.forEach {
-                block("if (${it.key})") {
-                    it.value.groupBy { it.expr }.map { it.value.first() }.forEach {
-                        it.componentExpressions.forEach { expr ->
-                            nl("this.${expr.oldValueName} = ${expr.toCode().generate()};")
-                        }
+        layoutBinder.sortedTargets.filter { it.isUsed }
+                .flatMap { it.bindings }
+                .filter { it.requiresOldValue() }
+                .groupBy {
+                    tmpDirtyFlags.mapOr(it.expr.dirtyFlagSet) { _, index ->
+                        "(${tmpDirtyFlags.localValue(index)} & ${it.expr.dirtyFlagSet.localValue(index)}) != 0"
+                    }.joinToString(" || ")
+                }.forEach {
+            block("if (${it.key})") {
+                it.value.groupBy { it.expr }.map { it.value.first() }.forEach {
+                    it.componentExpressions.forEach { expr ->
+                        nl("this.${expr.oldValueName} = ${expr.toCode().generate()};")
                     }
                 }
             }
-            includedBinders.filter { it.isUsed }.forEach { binder ->
-                nl("executeBindingsOn(${binder.fieldName});")
-            }
-            layoutBinder.sortedTargets.filter {
-                it.isUsed && it.resolvedType != null && it.resolvedType.extendsViewStub
-            }.forEach {
-                block("if (${it.fieldName}.getBinding() != null)") {
-                    nl("executeBindingsOn(${it.fieldName}.getBinding());")
-                }
+        }
+        includedBinders.filter { it.isUsed }.forEach { binder ->
+            nl("executeBindingsOn(${binder.fieldName});")
+        }
+        layoutBinder.sortedTargets.filter {
+            it.isUsed && it.resolvedType != null && it.resolvedType.extendsViewStub
+        }.forEach {
+            block("if (${it.fieldName}.getBinding() != null)") {
+                nl("executeBindingsOn(${it.fieldName}.getBinding());")
             }
         }
     }
@@ -1098,7 +1619,16 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder, val libTypes: LibTypes
                             app("", assignment)
                         }
                         it.value.filter { it.isObservable }.forEach { expr: Expr ->
-                            tab(expr.getUpdateRegistrationCall(expr.id, expr.executePendingLocalName))
+                            if (twoPhaseBindings) {
+                                // observers are registered on the main thread in applyBindings
+                                val flag = deferredRegistrations.getOrPut(expr) {
+                                    model.ext.getUniqueName("register${expr.readableName.capitalizeUS()}",
+                                            Scope.EXECUTE_PENDING_METHOD, false)
+                                }
+                                tab("$flag = true;")
+                            } else {
+                                tab(expr.getUpdateRegistrationCall(expr.id, expr.executePendingLocalName))
+                            }
                         }
                     }
 
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding.tool.writer
+
+import android.databinding.tool.CompilerArguments
+
+/**
+ * Options that change the code generated for binding implementations by [LayoutBinderWriter].
+ */
+data class LayoutBinderWriterOptions(
+    // split executeBindings into evaluateBindings, which may run on a background thread, and
+    // applyBindings, which sets the evaluated values on the views
+    val twoPhaseBindings: Boolean = false,
+    // update the dirty flags with compare-and-set instead of synchronizing on the binding
+    val atomicDirtyFlags: Boolean = false,
+    // update the dirty flags without synchronization, asserting in debuggable apps that the
+    // bindings are only used from their main thread
+    val mainThreadOnly: Boolean = false
+) {
+    companion object {
+        @JvmStatic
+        fun fromCompilerArgs(args: CompilerArguments) = LayoutBinderWriterOptions(
+            twoPhaseBindings = args.isEnableTwoPhaseBindings,
+            atomicDirtyFlags = args.isEnableAtomicDirtyFlags,
+            mainThreadOnly = args.isEnableMainThreadOnlyBindings
+        )
+    }
+}
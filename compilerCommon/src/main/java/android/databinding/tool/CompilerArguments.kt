@@ -70,7 +70,16 @@ data class CompilerArguments constructor(
     // comma separated list of package names for direct dependencies that are directly accessible in this compilation.
     // only passed by bazel to be able to distinguish which mappers in the classpath can be accessed
     // in generated code. Gradle removes such classes from classpath hence they are not necessary.
-    val directDependencyPackages : String? = null
+    val directDependencyPackages : String? = null,
+    // whether generated bindings split executeBindings so that expressions can be evaluated
+    // off the main thread
+    val isEnableTwoPhaseBindings: Boolean = false,
+    // whether generated bindings update their dirty flags with compare-and-set instead of
+    // synchronizing on the binding
+    val isEnableAtomicDirtyFlags: Boolean = false,
+    // whether generated bindings of this module are only used from their main thread and so
+    // update their dirty flags without synchronization
+    val isEnableMainThreadOnlyBindings: Boolean = false
 ) {
     init {
         Preconditions.check(
@@ -149,6 +158,10 @@ data class CompilerArguments constructor(
         if (directDependencyPackages != null) {
             args[PARAM_DIRECT_DEPENDENCY_PKGS] = directDependencyPackages
         }
+        args[PARAM_ENABLE_TWO_PHASE_BINDINGS] = booleanToString(isEnableTwoPhaseBindings)
+        args[PARAM_ENABLE_ATOMIC_DIRTY_FLAGS] = booleanToString(isEnableAtomicDirtyFlags)
+        args[PARAM_ENABLE_MAIN_THREAD_ONLY_BINDINGS] =
+                booleanToString(isEnableMainThreadOnlyBindings)
         return args
     }
 
@@ -191,6 +204,10 @@ data class CompilerArguments constructor(
         // it looks like [pkg1, pkg2]. Java does not distinguish between empty string vs null (absent) so we are
         // using [] as a wrapper around to easily distinguish between unspecified vs empty list
         private const val PARAM_DIRECT_DEPENDENCY_PKGS = PREFIX + "directDependencyPkgs"
+        private const val PARAM_ENABLE_TWO_PHASE_BINDINGS = PREFIX + "enableTwoPhaseBindings"
+        private const val PARAM_ENABLE_ATOMIC_DIRTY_FLAGS = PREFIX + "enableAtomicDirtyFlags"
+        private const val PARAM_ENABLE_MAIN_THREAD_ONLY_BINDINGS =
+                PREFIX + "enableMainThreadOnlyBindings"
 
         @JvmField
         val ALL_PARAMS: Set<String> = Sets.newHashSet(
@@ -211,7 +228,10 @@ data class CompilerArguments constructor(
             PARAM_IS_TEST_VARIANT,
             PARAM_ENABLE_FOR_TESTS,
             PARAM_ENABLE_V2,
-            PARAM_DIRECT_DEPENDENCY_PKGS
+            PARAM_DIRECT_DEPENDENCY_PKGS,
+            PARAM_ENABLE_TWO_PHASE_BINDINGS,
+            PARAM_ENABLE_ATOMIC_DIRTY_FLAGS,
+            PARAM_ENABLE_MAIN_THREAD_ONLY_BINDINGS
         )
 
         @JvmStatic
@@ -246,7 +266,13 @@ data class CompilerArguments constructor(
                 isEnabledForTests = stringToBoolean(options[PARAM_ENABLE_FOR_TESTS]),
                 isEnableV2 = stringToBoolean(options[PARAM_ENABLE_V2]),
                 // if specified, rely on it even if it is empty
-                directDependencyPackages = options[PARAM_DIRECT_DEPENDENCY_PKGS]
+                directDependencyPackages = options[PARAM_DIRECT_DEPENDENCY_PKGS],
+                isEnableTwoPhaseBindings = stringToBoolean(
+                        options[PARAM_ENABLE_TWO_PHASE_BINDINGS]),
+                isEnableAtomicDirtyFlags = stringToBoolean(
+                        options[PARAM_ENABLE_ATOMIC_DIRTY_FLAGS]),
+                isEnableMainThreadOnlyBindings = stringToBoolean(
+                        options[PARAM_ENABLE_MAIN_THREAD_ONLY_BINDINGS])
             )
         }
 
@@ -29,6 +29,9 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.parsers.ParserConfigurationException;
@@ -49,15 +52,31 @@ public class LayoutXmlProcessor {
     private final ResourceBundle mResourceBundle;
     private boolean mProcessingComplete;
     private final OriginalFileLookup mOriginalFileLookup;
+    private final boolean mParallel;
 
     public LayoutXmlProcessor(
             String applicationPackage,
             JavaFileWriter fileWriter,
             OriginalFileLookup originalFileLookup,
             boolean useAndroidX) {
+        this(applicationPackage, fileWriter, originalFileLookup, useAndroidX, false);
+    }
+
+    /**
+     * @param parallel Whether layout files should be parsed on all the available cores. The
+     *                 layouts are still added to the resource bundle in the order of the input
+     *                 files, so the output does not depend on the scheduling.
+     */
+    public LayoutXmlProcessor(
+            String applicationPackage,
+            JavaFileWriter fileWriter,
+            OriginalFileLookup originalFileLookup,
+            boolean useAndroidX,
+            boolean parallel) {
         mFileWriter = fileWriter;
         mResourceBundle = new ResourceBundle(applicationPackage, useAndroidX);
         mOriginalFileLookup = originalFileLookup;
+        mParallel = parallel;
     }
 
     private static void processIncrementalInputFiles(ResourceInput input,
@@ -77,6 +96,7 @@ public class LayoutXmlProcessor {
             ProcessFileCallback callback)
             throws IOException, XPathExpressionException, SAXException,
             ParserConfigurationException {
+        List<File> layoutFiles = new ArrayList<>();
         for (File file : files) {
             File parent = file.getParentFile();
             if (inputRoot.equals(parent)) {
@@ -86,11 +106,12 @@ public class LayoutXmlProcessor {
                     callback.processOtherRootFile(file);
                 }
             } else if (LAYOUT_FOLDER_FILTER.accept(parent, parent.getName())) {
-                callback.processLayoutFile(file);
+                layoutFiles.add(file);
             } else {
                 callback.processOtherFile(parent, file);
             }
         }
+        callback.processLayoutFiles(layoutFiles);
     }
 
     private static void processRemovedIncrementalFiles(File inputRoot, List<File> files,
@@ -114,6 +135,7 @@ public class LayoutXmlProcessor {
         FileUtils.deleteDirectory(input.getRootOutputFolder());
         Preconditions.check(input.getRootOutputFolder().mkdirs(), "out dir should be re-created");
         Preconditions.check(input.getRootInputFolder().isDirectory(), "it must be a directory");
+        List<File> layoutFiles = new ArrayList<>();
         //noinspection ConstantConditions
         for (File firstLevel : input.getRootInputFolder().listFiles()) {
             if (firstLevel.isDirectory()) {
@@ -121,7 +143,7 @@ public class LayoutXmlProcessor {
                     callback.processLayoutFolder(firstLevel);
                     //noinspection ConstantConditions
                     for (File xmlFile : firstLevel.listFiles(XML_FILE_FILTER)) {
-                        callback.processLayoutFile(xmlFile);
+                        layoutFiles.add(xmlFile);
                     }
                 } else {
                     callback.processOtherFolder(firstLevel);
@@ -135,6 +157,7 @@ public class LayoutXmlProcessor {
             }
 
         }
+        callback.processLayoutFiles(layoutFiles);
     }
 
     /**
@@ -157,9 +180,23 @@ public class LayoutXmlProcessor {
             boolean isViewBindingEnabled, boolean isDataBindingEnabled)
             throws ParserConfigurationException, SAXException, XPathExpressionException,
             IOException {
-        final ResourceBundle.LayoutFileBundle bindingLayout = LayoutFileParser
-                .parseXml(input, output, mResourceBundle.getAppPackage(), mOriginalFileLookup,
-                        isViewBindingEnabled, isDataBindingEnabled);
+        return addLayoutBundle(parseSingleFile(input, output, isViewBindingEnabled,
+                isDataBindingEnabled));
+    }
+
+    /**
+     * Parses and strips a layout file without touching the resource bundle, so that it can be
+     * called from any thread.
+     */
+    private ResourceBundle.LayoutFileBundle parseSingleFile(@NonNull RelativizableFile input,
+            @NonNull File output, boolean isViewBindingEnabled, boolean isDataBindingEnabled)
+            throws ParserConfigurationException, SAXException, XPathExpressionException,
+            IOException {
+        return LayoutFileParser.parseXml(input, output, mResourceBundle.getAppPackage(),
+                mOriginalFileLookup, isViewBindingEnabled, isDataBindingEnabled);
+    }
+
+    private boolean addLayoutBundle(ResourceBundle.LayoutFileBundle bindingLayout) {
         if (bindingLayout == null
                 || (bindingLayout.isBindingData() && bindingLayout.isEmpty())) {
             return false;
@@ -168,6 +205,59 @@ public class LayoutXmlProcessor {
         return true;
     }
 
+    /**
+     * Parses the layout files on a fork-join pool and adds the results to the resource bundle
+     * in the order of <code>inputs</code>.
+     */
+    private void processFilesInParallel(List<RelativizableFile> inputs, List<File> outputs,
+            boolean isViewBindingEnabled, boolean isDataBindingEnabled)
+            throws ParserConfigurationException, SAXException, XPathExpressionException,
+            IOException {
+        ForkJoinPool pool = new ForkJoinPool(
+                Math.min(inputs.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            List<ForkJoinTask<ResourceBundle.LayoutFileBundle>> tasks = new ArrayList<>();
+            for (int i = 0; i < inputs.size(); i++) {
+                final RelativizableFile input = inputs.get(i);
+                final File output = outputs.get(i);
+                tasks.add(pool.submit(() -> parseSingleFile(input, output, isViewBindingEnabled,
+                        isDataBindingEnabled)));
+            }
+            for (ForkJoinTask<ResourceBundle.LayoutFileBundle> task : tasks) {
+                addLayoutBundle(join(task));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <T> T join(ForkJoinTask<T> task)
+            throws ParserConfigurationException, SAXException, XPathExpressionException,
+            IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing layout files", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ParserConfigurationException) {
+                throw (ParserConfigurationException) cause;
+            } else if (cause instanceof SAXException) {
+                throw (SAXException) cause;
+            } else if (cause instanceof XPathExpressionException) {
+                throw (XPathExpressionException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
     public boolean processResources(
             ResourceInput input, boolean isViewBindingEnabled, boolean isDataBindingEnabled)
             throws ParserConfigurationException, SAXException, XPathExpressionException,
@@ -183,11 +273,25 @@ public class LayoutXmlProcessor {
                 return new File(input.getRootOutputFolder(), subPath);
             }
             @Override
-            public void processLayoutFile(File file)
+            public void processLayoutFiles(List<File> files)
                     throws ParserConfigurationException, SAXException, XPathExpressionException,
                     IOException {
-                processSingleFile(RelativizableFile.fromAbsoluteFile(file, null),
-                        convertToOutFile(file), isViewBindingEnabled, isDataBindingEnabled);
+                if (!mParallel || files.size() < 2) {
+                    for (File file : files) {
+                        processSingleFile(RelativizableFile.fromAbsoluteFile(file, null),
+                                convertToOutFile(file), isViewBindingEnabled,
+                                isDataBindingEnabled);
+                    }
+                    return;
+                }
+                List<RelativizableFile> inputs = new ArrayList<>();
+                List<File> outputs = new ArrayList<>();
+                for (File file : files) {
+                    inputs.add(RelativizableFile.fromAbsoluteFile(file, null));
+                    outputs.add(convertToOutFile(file));
+                }
+                processFilesInParallel(inputs, outputs, isViewBindingEnabled,
+                        isDataBindingEnabled);
             }
 
             @Override
@@ -405,7 +509,7 @@ public class LayoutXmlProcessor {
     }
 
     private interface ProcessFileCallback {
-        void processLayoutFile(File file)
+        void processLayoutFiles(List<File> files)
                 throws ParserConfigurationException, SAXException, XPathExpressionException,
                 IOException;
         void processOtherFile(File parentFolder, File file) throws IOException;
@@ -59,6 +59,9 @@ public class ErrorMessages {
     public static final String SYNTAX_ERROR =
             "Syntax error: %s";
 
+    public static final String LAYOUT_WITHOUT_ROOT_ELEMENT =
+            "Cannot find the root element of the layout file: %s";
+
     public static final String CANNOT_FIND_GETTER_CALL =
             "Cannot find a getter for <%s %s> that accepts parameter type '%s'\n" +
             "\n" +
@@ -36,7 +36,9 @@ import java.util.List;
 public class Scope {
 
     private static ThreadLocal<ScopeEntry> sScopeItems = new ThreadLocal<ScopeEntry>();
-    static List<ScopedException> sDeferredExceptions = new ArrayList<ScopedException>();
+    // layout files may be processed on several threads
+    static List<ScopedException> sDeferredExceptions =
+            Collections.synchronizedList(new ArrayList<ScopedException>());
 
     public static void enter(final Location location) {
         enter(new LocationScopeProvider() {
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding.tool.store;
+
+import android.databinding.tool.store.ResourceBundle.BindingTargetBundle;
+import android.databinding.tool.store.ResourceBundle.BindingTargetBundle.BindingBundle;
+import android.databinding.tool.store.ResourceBundle.LayoutFileBundle;
+import android.databinding.tool.store.ResourceBundle.NameTypeLocation;
+import android.databinding.tool.store.ResourceBundle.VariableDeclaration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of the persisted fields of a {@link LayoutFileBundle}, the same ones
+ * that {@link LayoutFileBundle#toXML()} writes.
+ * <p>
+ * An encoded bundle starts with {@link #MAGIC} and a format version, followed by a table of the
+ * distinct strings in the bundle and then by the bundle itself. Numbers are written as
+ * variable-length integers and strings as 1-based indices into the table, 0 standing for null.
+ */
+final class LayoutFileBundleCodec {
+    private static final byte[] MAGIC = {'D', 'B', 'L', 'I'};
+    private static final int VERSION = 1;
+
+    static boolean isEncoded(byte[] bytes) {
+        if (bytes.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static byte[] encode(LayoutFileBundle bundle) {
+        Writer body = new Writer();
+        body.string(bundle.mFileName);
+        body.string(bundle.mModulePackage);
+        body.string(bundle.mFilePath);
+        body.string(bundle.mDirectory);
+        body.string(bundle.mBindingClass);
+        body.location(bundle.mClassNameLocation);
+        body.bool(bundle.mIsMerge);
+        body.bool(bundle.mIsBindingData);
+        body.string(bundle.mRootNodeViewType);
+        body.string(bundle.mRootNodeViewId);
+        body.uint(bundle.mVariables.size());
+        for (VariableDeclaration variable : bundle.mVariables) {
+            body.nameTypeLocation(variable);
+            body.bool(variable.declared);
+        }
+        body.uint(bundle.mImports.size());
+        for (NameTypeLocation anImport : bundle.mImports) {
+            body.nameTypeLocation(anImport);
+        }
+        body.uint(bundle.mBindingTargetBundles.size());
+        for (BindingTargetBundle target : bundle.mBindingTargetBundles) {
+            body.string(target.mId);
+            body.string(target.mTag);
+            body.string(target.mOriginalTag);
+            body.string(target.mViewName);
+            body.string(target.mIncludedLayout);
+            body.string(target.mViewPath);
+            body.location(target.mLocation);
+            body.uint(target.mBindingBundleList.size());
+            for (BindingBundle binding : target.mBindingBundleList) {
+                body.string(binding.getName());
+                body.string(binding.getExpr());
+                body.location(binding.getLocation());
+                body.location(binding.getValueLocation());
+                body.bool(binding.isTwoWay());
+            }
+        }
+
+        Writer out = new Writer();
+        out.write(MAGIC, 0, MAGIC.length);
+        out.uint(VERSION);
+        out.uint(body.mStrings.size());
+        for (String string : body.mStrings.keySet()) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            out.uint(utf8.length);
+            out.write(utf8, 0, utf8.length);
+        }
+        out.write(body.toByteArray(), 0, body.size());
+        return out.toByteArray();
+    }
+
+    static LayoutFileBundle decode(byte[] bytes) throws IOException {
+        if (!isEncoded(bytes)) {
+            throw new IOException("Not an encoded layout info");
+        }
+        Reader in = new Reader(bytes, MAGIC.length);
+        int version = in.uint();
+        if (version != VERSION) {
+            throw new IOException("Unsupported layout info version " + version
+                    + ". Please recompile the dependency with this version of data binding.");
+        }
+        int stringCount = in.uint();
+        in.mStrings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            int length = in.uint();
+            in.mStrings[i] = new String(bytes, in.take(length), length, StandardCharsets.UTF_8);
+        }
+
+        LayoutFileBundle bundle = new LayoutFileBundle();
+        bundle.mFileName = in.string();
+        bundle.mModulePackage = in.string();
+        bundle.mFilePath = in.string();
+        bundle.mDirectory = in.string();
+        bundle.mBindingClass = in.string();
+        bundle.mClassNameLocation = in.location();
+        bundle.mIsMerge = in.bool();
+        bundle.mIsBindingData = in.bool();
+        bundle.mRootNodeViewType = in.string();
+        bundle.mRootNodeViewId = in.string();
+        int variableCount = in.uint();
+        for (int i = 0; i < variableCount; i++) {
+            VariableDeclaration variable = new VariableDeclaration();
+            in.nameTypeLocation(variable);
+            variable.declared = in.bool();
+            bundle.mVariables.add(variable);
+        }
+        int importCount = in.uint();
+        for (int i = 0; i < importCount; i++) {
+            NameTypeLocation anImport = new NameTypeLocation();
+            in.nameTypeLocation(anImport);
+            bundle.mImports.add(anImport);
+        }
+        int targetCount = in.uint();
+        for (int i = 0; i < targetCount; i++) {
+            BindingTargetBundle target = new BindingTargetBundle();
+            target.mId = in.string();
+            target.mTag = in.string();
+            target.mOriginalTag = in.string();
+            target.mViewName = in.string();
+            target.mIncludedLayout = in.string();
+            target.mViewPath = in.string();
+            target.mLocation = in.location();
+            int bindingCount = in.uint();
+            for (int j = 0; j < bindingCount; j++) {
+                BindingBundle binding = new BindingBundle();
+                binding.setName(in.string());
+                binding.setExpr(in.string());
+                binding.setLocation(in.location());
+                binding.setValueLocation(in.location());
+                binding.setTwoWay(in.bool());
+                target.mBindingBundleList.add(binding);
+            }
+            bundle.mBindingTargetBundles.add(target);
+        }
+        return bundle;
+    }
+
+    private static class Writer extends ByteArrayOutputStream {
+        final Map<String, Integer> mStrings = new LinkedHashMap<>();
+
+        void uint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void sint(int value) {
+            uint((value << 1) ^ (value >> 31));
+        }
+
+        void bool(boolean value) {
+            write(value ? 1 : 0);
+        }
+
+        void string(String value) {
+            if (value == null) {
+                uint(0);
+                return;
+            }
+            Integer index = mStrings.get(value);
+            if (index == null) {
+                index = mStrings.size() + 1;
+                mStrings.put(value, index);
+            }
+            uint(index);
+        }
+
+        void location(Location location) {
+            if (location == null) {
+                bool(false);
+                return;
+            }
+            bool(true);
+            sint(location.startLine);
+            sint(location.startOffset);
+            sint(location.endLine);
+            sint(location.endOffset);
+            location(location.parentLocation);
+        }
+
+        void nameTypeLocation(NameTypeLocation value) {
+            string(value.name);
+            string(value.type);
+            location(value.location);
+        }
+    }
+
+    private static class Reader {
+        private final byte[] mBytes;
+        private int mPosition;
+        String[] mStrings;
+
+        Reader(byte[] bytes, int position) {
+            mBytes = bytes;
+            mPosition = position;
+        }
+
+        int take(int length) throws IOException {
+            if (length < 0 || length > mBytes.length - mPosition) {
+                throw new IOException("Truncated layout info");
+            }
+            int start = mPosition;
+            mPosition += length;
+            return start;
+        }
+
+        int uint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = mBytes[take(1)];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed layout info");
+        }
+
+        int sint() throws IOException {
+            int value = uint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        boolean bool() throws IOException {
+            return mBytes[take(1)] != 0;
+        }
+
+        String string() throws IOException {
+            int index = uint();
+            if (index == 0) {
+                return null;
+            }
+            if (index > mStrings.length) {
+                throw new IOException("Malformed layout info");
+            }
+            return mStrings[index - 1];
+        }
+
+        Location location() throws IOException {
+            if (!bool()) {
+                return null;
+            }
+            Location location = new Location(sint(), sint(), sint(), sint());
+            location.parentLocation = location();
+            return location;
+        }
+
+        void nameTypeLocation(NameTypeLocation value) throws IOException {
+            value.name = string();
+            value.type = string();
+            value.location = location();
+        }
+    }
+
+    private LayoutFileBundleCodec() {
+    }
+}
@@ -32,32 +32,25 @@ import com.android.annotations.Nullable;
 import com.google.common.base.Strings;
 
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
 import org.apache.commons.io.FileUtils;
 import org.mozilla.universalchardet.UniversalDetector;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 /**
  * Gets the list of XML files and creates a list of
@@ -66,8 +59,6 @@ import javax.xml.xpath.XPathFactory;
  */
 public final class LayoutFileParser {
 
-    private static final String XPATH_BINDING_LAYOUT = "/layout";
-
     private static final String LAYOUT_PREFIX = "@layout/";
 
     @Nullable
@@ -91,11 +82,19 @@ public final class LayoutFileParser {
                     return originalFilePath;
                 }
             });
-            final String encoding = findEncoding(inputFile);
-            stripFile(inputFile, outputFile, encoding, originalFileLookup);
+            // the input is read, decoded and parsed once, both to strip it and, when it is
+            // its own original, to extract the binding information
+            final XmlFile xml = XmlFile.read(inputFile, null);
+            stripFile(xml, outputFile, originalFileLookup);
+            final XmlFile originalXml = originalFile.equals(inputFile) ? xml
+                    : XmlFile.read(originalFile, xml.encoding);
+            if (!isViewBindingEnabled && !originalXml.isBindingLayout()) {
+                // without view binding, plain layouts are copied without being parsed
+                return null;
+            }
             return parseOriginalXml(
                 RelativizableFile.fromAbsoluteFile(originalFile, input.getBaseDir()),
-                pkg, encoding, isViewBindingEnabled, isDataBindingEnabled);
+                originalXml, pkg, isViewBindingEnabled, isDataBindingEnabled);
         } finally {
             Scope.exit();
         }
@@ -103,22 +102,25 @@ public final class LayoutFileParser {
 
     public static boolean stripSingleLayoutFile(File layoutFile, File outputFile)
             throws IOException {
-        String encoding = findEncoding(layoutFile);
+        XmlFile xml = XmlFile.read(layoutFile, null);
+        XMLParser.ElementContext root = xml.root();
+        if (root == null) {
+            return false;
+        }
         String noExt = ParserHelper.stripExtension(layoutFile.getName());
         String binderId = layoutFile.getParentFile().getName() + '/' + noExt;
-        String res = XmlEditor.strip(layoutFile, binderId, encoding);
+        String res = XmlEditor.strip(layoutFile, root, xml.content, binderId);
         if (res != null) {
-            FileUtils.writeStringToFile(outputFile, res, encoding);
+            FileUtils.writeStringToFile(outputFile, res, xml.encoding);
             return true;
         }
         return false;
     }
 
     private static ResourceBundle.LayoutFileBundle parseOriginalXml(
-            @NonNull final RelativizableFile originalFile, @NonNull final String pkg,
-            @NonNull final String encoding, boolean isViewBindingEnabled,
-            boolean isDataBindingEnabled)
-            throws IOException {
+            @NonNull final RelativizableFile originalFile, @NonNull final XmlFile xml,
+            @NonNull final String pkg, boolean isViewBindingEnabled,
+            boolean isDataBindingEnabled) {
         File original = originalFile.getAbsoluteFile();
         try {
             Scope.enter(new FileScopeProvider() {
@@ -128,14 +130,10 @@ public final class LayoutFileParser {
                 }
             });
             final String xmlNoExtension = ParserHelper.stripExtension(original.getName());
-            FileInputStream fin = new FileInputStream(original);
-            InputStreamReader reader = new InputStreamReader(fin, encoding);
-            ANTLRInputStream inputStream = new ANTLRInputStream(reader);
-            XMLLexer lexer = new XMLLexer(inputStream);
-            CommonTokenStream tokenStream = new CommonTokenStream(lexer);
-            XMLParser parser = new XMLParser(tokenStream);
-            XMLParser.DocumentContext expr = parser.document();
-            XMLParser.ElementContext root = expr.element();
+            XMLParser.ElementContext root = xml.root();
+            if (root == null) {
+                return null;
+            }
             boolean isBindingData = "layout".equals(root.elmName.getText());
 
             XMLParser.ElementContext data;
@@ -288,6 +286,7 @@ public final class LayoutFileParser {
                             new Location(parent));
             nodeTagMap.put(parent, tag);
             bindingTargetBundle.setIncludedLayout(includedLayoutName);
+            bindingTargetBundle.setViewPath(getViewPath(rootView, parent));
 
             for (XMLParser.AttributeContext attr : XmlEditor.expressionAttributes(parent)) {
                 String value = escapeQuotes(attr.attrValue.getText(), true);
@@ -317,8 +316,52 @@ public final class LayoutFileParser {
         for (XMLParser.ElementContext elm : otherElementsWithIds) {
             final String id = attributeMap(elm).get("android:id");
             final String className = getViewName(elm);
-            bundle.createBindingTarget(id, className, true, null, null, new Location(elm));
+            bundle.createBindingTarget(id, className, true, null, null, new Location(elm))
+                    .setViewPath(getViewPath(rootView, elm));
+        }
+    }
+
+    /**
+     * Returns the child indices that lead from the root View to the View inflated for
+     * <code>element</code>, separated by commas. For merge layouts, the first index is the
+     * position within the merged roots. Returns null when the position of the View is not known
+     * before inflation, such as after an include, which may add any number of Views.
+     */
+    @Nullable
+    private static String getViewPath(XMLParser.ElementContext rootView,
+            XMLParser.ElementContext element) {
+        StringBuilder path = null;
+        while (element != rootView) {
+            // account for XMLParser.ContentContext
+            final XMLParser.ElementContext parent =
+                    (XMLParser.ElementContext) element.getParent().getParent();
+            int index = 0;
+            for (XMLParser.ElementContext sibling : XmlEditor.elements(parent)) {
+                if (sibling == element) {
+                    break;
+                }
+                if (!isSingleViewElement(sibling.elmName.getText())) {
+                    return null;
+                }
+                index++;
+            }
+            if (path == null) {
+                path = new StringBuilder();
+            } else {
+                path.insert(0, ',');
+            }
+            path.insert(0, index);
+            element = parent;
         }
+        return path == null ? "" : path.toString();
+    }
+
+    /**
+     * Returns true if an element with the given name always inflates to exactly one View.
+     */
+    private static boolean isSingleViewElement(String name) {
+        return !"include".equals(name) && !"fragment".equals(name) && !"merge".equals(name)
+                && !"requestFocus".equals(name) && !"tag".equals(name);
     }
 
     private static String getViewName(XMLParser.ElementContext elm) {
@@ -433,81 +476,53 @@ public final class LayoutFileParser {
         return result;
     }
 
-    private static void stripFile(File xml, File out, String encoding,
+    private static void stripFile(XmlFile xml, File out,
             LayoutXmlProcessor.OriginalFileLookup originalFileLookup)
-            throws ParserConfigurationException, IOException, SAXException,
-            XPathExpressionException {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(xml);
-        XPathFactory xPathFactory = XPathFactory.newInstance();
-        XPath xPath = xPathFactory.newXPath();
+            throws IOException {
         File actualFile = originalFileLookup == null ? null
-                : originalFileLookup.getOriginalFileFor(xml);
+                : originalFileLookup.getOriginalFileFor(xml.file);
         // TODO get rid of original file lookup
         if (actualFile == null) {
-            actualFile = xml;
+            actualFile = xml.file;
         }
         // always create id from actual file when available. Gradle may duplicate files.
         String noExt = ParserHelper.stripExtension(actualFile.getName());
         String binderId = actualFile.getParentFile().getName() + '/' + noExt;
         // now if file has any binding expressions, find and delete them
-        boolean changed = isBindingLayout(doc, xPath);
+        boolean changed = xml.isBindingLayout();
         if (changed) {
-            stripBindingTags(xml, out, binderId, encoding);
-        } else if (!xml.equals(out)){
-            FileUtils.copyFile(xml, out);
-        }
-    }
-
-    private static boolean isBindingLayout(Document doc, XPath xPath)
-            throws XPathExpressionException {
-        return !get(doc, xPath, XPATH_BINDING_LAYOUT).isEmpty();
-    }
-
-    private static List<Node> get(Document doc, XPath xPath, String pattern)
-            throws XPathExpressionException {
-        final XPathExpression expr = xPath.compile(pattern);
-        return toList((NodeList) expr.evaluate(doc, XPathConstants.NODESET));
-    }
-
-    private static List<Node> toList(NodeList nodeList) {
-        List<Node> result = new ArrayList<>();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            result.add(nodeList.item(i));
+            stripBindingTags(xml, out, binderId);
+        } else if (!xml.file.equals(out)){
+            FileUtils.copyFile(xml.file, out);
         }
-        return result;
     }
 
-    private static void stripBindingTags(File xml, File output, String newTag, String encoding)
+    private static void stripBindingTags(XmlFile xml, File output, String newTag)
             throws IOException {
-        String res = XmlEditor.strip(xml, newTag, encoding);
-        Preconditions.checkNotNull(res, "layout file should've changed %s", xml.getAbsolutePath());
+        String res = XmlEditor.strip(xml.file, xml.root(), xml.content, newTag);
+        Preconditions.checkNotNull(res, "layout file should've changed %s",
+                xml.file.getAbsolutePath());
         if (res != null) {
             L.d("file %s has changed, overwriting %s",
-                    xml.getAbsolutePath(), output.getAbsolutePath());
-            FileUtils.writeStringToFile(output, res, encoding);
+                    xml.file.getAbsolutePath(), output.getAbsolutePath());
+            FileUtils.writeStringToFile(output, res, xml.encoding);
         }
     }
 
-    private static String findEncoding(File f) throws IOException {
-        try (FileInputStream fin = new FileInputStream(f)) {
-            UniversalDetector universalDetector = new UniversalDetector(null);
-
-            byte[] buf = new byte[4096];
-            int nread;
-            while ((nread = fin.read(buf)) > 0 && !universalDetector.isDone()) {
-                universalDetector.handleData(buf, 0, nread);
-            }
+    private static String findEncoding(byte[] bytes) {
+        UniversalDetector universalDetector = new UniversalDetector(null);
+        for (int offset = 0; offset < bytes.length && !universalDetector.isDone();
+                offset += 4096) {
+            universalDetector.handleData(bytes, offset, Math.min(4096, bytes.length - offset));
+        }
 
-            universalDetector.dataEnd();
+        universalDetector.dataEnd();
 
-            String encoding = universalDetector.getDetectedCharset();
-            if (encoding == null) {
-                encoding = "utf-8";
-            }
-            return encoding;
+        String encoding = universalDetector.getDetectedCharset();
+        if (encoding == null) {
+            encoding = "utf-8";
         }
+        return encoding;
     }
 
     private static Map<String, String> attributeMap(XMLParser.ElementContext root) {
@@ -547,6 +562,154 @@ public final class LayoutFileParser {
         }
     }
 
+    /**
+     * Finds the name of the root element by skipping the XML declaration, processing
+     * instructions and comments before it, without parsing the document.
+     *
+     * @return The name of the root element or null if the prolog needs a real parser, for
+     * instance because it has a DOCTYPE.
+     */
+    @Nullable
+    static String findRootElementName(@NonNull String content) {
+        final int length = content.length();
+        int index = 0;
+        while (index < length) {
+            char c = content.charAt(index);
+            if (c == '\uFEFF' || Character.isWhitespace(c)) {
+                index++;
+            } else if (c != '<') {
+                return null;
+            } else if (content.startsWith("<?", index)) {
+                index = content.indexOf("?>", index + 2);
+                if (index < 0) {
+                    return null;
+                }
+                index += 2;
+            } else if (content.startsWith("<!--", index)) {
+                index = content.indexOf("-->", index + 4);
+                if (index < 0) {
+                    return null;
+                }
+                index += 3;
+            } else if (content.startsWith("<!", index)) {
+                return null;
+            } else {
+                int start = index + 1;
+                int end = start;
+                while (end < length) {
+                    char nameChar = content.charAt(end);
+                    if (Character.isWhitespace(nameChar) || nameChar == '>' || nameChar == '/') {
+                        break;
+                    }
+                    end++;
+                }
+                return end > start ? content.substring(start, end) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A layout file that is read and decoded only once, and parsed only if needed.
+     */
+    private static class XmlFile {
+        final File file;
+        final String encoding;
+        final String content;
+        private XMLParser.ElementContext mRoot;
+        private boolean mParsed;
+
+        private XmlFile(File file, String encoding, String content) {
+            this.file = file;
+            this.encoding = encoding;
+            this.content = content;
+        }
+
+        /**
+         * @return The root element, or null if the file has none, which is reported as an
+         * error.
+         */
+        @Nullable
+        XMLParser.ElementContext root() {
+            if (!mParsed) {
+                XMLLexer lexer = new XMLLexer(new ANTLRInputStream(content));
+                XMLParser parser = new XMLParser(new CommonTokenStream(lexer));
+                // syntax errors are reported here rather than printed by ANTLR
+                final List<String> errors = new ArrayList<>();
+                final Location errorLocation = new Location(0, 0, 0, 0);
+                BaseErrorListener errorListener = new BaseErrorListener() {
+                    @Override
+                    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                            int line, int charPositionInLine, String msg,
+                            RecognitionException e) {
+                        if (errors.isEmpty()) {
+                            errorLocation.startLine = errorLocation.endLine = line - 1;
+                            errorLocation.startOffset = errorLocation.endOffset =
+                                    charPositionInLine;
+                        }
+                        errors.add(msg);
+                    }
+                };
+                lexer.removeErrorListeners();
+                lexer.addErrorListener(errorListener);
+                parser.removeErrorListeners();
+                parser.addErrorListener(errorListener);
+                XMLParser.ElementContext root = parser.document().element();
+                mParsed = true;
+                if (root != null && root.elmName != null) {
+                    mRoot = root;
+                    for (String error : errors) {
+                        L.d("Syntax error in %s: %s", file, error);
+                    }
+                } else {
+                    reportMissingRoot(errors.isEmpty() ? null : errors.get(0), errorLocation);
+                }
+            }
+            return mRoot;
+        }
+
+        private void reportMissingRoot(@Nullable String error, Location location) {
+            try {
+                Scope.enter(new FileScopeProvider() {
+                    @Override
+                    public String provideScopeFilePath() {
+                        return file.getAbsolutePath();
+                    }
+                });
+                Scope.enter(location);
+                L.e(ErrorMessages.LAYOUT_WITHOUT_ROOT_ELEMENT,
+                        error == null ? "no root element" : error);
+            } finally {
+                Scope.exit();
+                Scope.exit();
+            }
+        }
+
+        /**
+         * @return true if the root element is a &lt;layout&gt;. Most layouts are plain views,
+         * which this finds out without parsing them.
+         */
+        boolean isBindingLayout() {
+            String rootName = findRootElementName(content);
+            if (rootName == null) {
+                XMLParser.ElementContext root = root();
+                rootName = root == null ? null : root.elmName.getText();
+            }
+            return "layout".equals(rootName);
+        }
+
+        /**
+         * @param encoding The encoding of the file or null if it should be detected.
+         */
+        static XmlFile read(File file, @Nullable String encoding) throws IOException {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            if (encoding == null) {
+                encoding = findEncoding(bytes);
+            }
+            return new XmlFile(file, encoding, new String(bytes, encoding));
+        }
+    }
+
     private LayoutFileParser() {
     }
 }
@@ -42,6 +42,7 @@ import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -596,7 +597,7 @@ public class ResourceBundle implements Serializable {
 
         // The location of the name of the generated class, optional
         @XmlElement(name = "ClassNameLocation", required = false)
-        private Location mClassNameLocation;
+        Location mClassNameLocation;
         // The full package and class name as determined from mBindingClass and mModulePackage
         private String mFullBindingClass;
 
@@ -622,22 +623,22 @@ public class ResourceBundle implements Serializable {
                 new ArrayList<BindingTargetBundle>();
 
         @XmlAttribute(name = "isMerge", required = true)
-        private boolean mIsMerge;
+        boolean mIsMerge;
 
         // In order to be backwards compatible this property is not required and has a default which
         // enables data binding. Only new versions will potentially set and persist false values.
         @XmlAttribute(name = "isBindingData")
-        private boolean mIsBindingData = true;
+        boolean mIsBindingData = true;
 
         // In order to be backwards compatible this property is not required and has a default
         // which is historically accurate. Only new versions will set and persist real values.
         @NonNull
         @XmlAttribute(name = "rootNodeType")
-        private String mRootNodeViewType = "android.view.View";
+        String mRootNodeViewType = "android.view.View";
 
         @Nullable
         @XmlAttribute(name = "rootNodeViewId")
-        private String mRootNodeViewId;
+        String mRootNodeViewId;
 
         private LocationScopeProvider mClassNameLocationProvider;
 
@@ -903,6 +904,29 @@ public class ResourceBundle implements Serializable {
             }
         }
 
+        /**
+         * Encodes the same fields as {@link #toXML()} in a compact binary form that is much
+         * cheaper to read back.
+         */
+        public byte[] toBinary() {
+            return LayoutFileBundleCodec.encode(this);
+        }
+
+        /**
+         * Reads a bundle written either by {@link #toBinary()} or by {@link #toXML()}.
+         */
+        public static LayoutFileBundle fromBytes(byte[] content)
+                throws IOException, JAXBException {
+            if (LayoutFileBundleCodec.isEncoded(content)) {
+                return LayoutFileBundleCodec.decode(content);
+            }
+            return fromXML(new ByteArrayInputStream(content));
+        }
+
+        public static boolean isBinary(byte[] content) {
+            return LayoutFileBundleCodec.isEncoded(content);
+        }
+
         public String createTag() {
             return getDirectory() + "/" + getFileName();
         }
@@ -1007,6 +1031,8 @@ public class ResourceBundle implements Serializable {
         public String mIncludedLayout;
         @XmlElement(name = "location")
         public Location mLocation;
+        @XmlAttribute(name = "viewPath")
+        public String mViewPath;
         private String mInterfaceType;
         private String mModulePackage;
 
@@ -1038,6 +1064,19 @@ public class ResourceBundle implements Serializable {
             return mIncludedLayout;
         }
 
+        public void setViewPath(String viewPath) {
+            mViewPath = viewPath;
+        }
+
+        /**
+         * The comma separated child indices that lead from the root View to this target, or
+         * null if they are not known at compile time.
+         */
+        @Nullable
+        public String getViewPath() {
+            return mViewPath;
+        }
+
         public String getViewName() {
             return mViewName;
         }
@@ -51,11 +51,16 @@ class V1CompatLayoutInfoLoader {
         val mapping: Map<String, GenClassInfoLog.GenClass> = files.flatMap {
             // read bundle
             FileUtils.openInputStream(it).use { inputStream ->
-                val intermediateCompat =
-                        CompatObjectInputStream(inputStream).readObject() as IntermediateV2Compat
-                intermediateCompat.mLayoutInfoMap.values.map {
-                    ResourceBundle.LayoutFileBundle
-                            .fromXML(it.byteInputStream(Charsets.UTF_8))
+                val intermediateCompat = CompatObjectInputStream(inputStream).readObject()
+                if (intermediateCompat is IntermediateV3Compat) {
+                    intermediateCompat.mLayoutInfoMap.values.map {
+                        ResourceBundle.LayoutFileBundle.fromBytes(it)
+                    }
+                } else {
+                    (intermediateCompat as IntermediateV1Compat).mLayoutInfoMap.values.map {
+                        ResourceBundle.LayoutFileBundle
+                                .fromXML(it.byteInputStream(Charsets.UTF_8))
+                    }
                 }
             }
         }.map { bundle ->
@@ -89,6 +94,12 @@ class V1CompatLayoutInfoLoader {
     class IntermediateV2Compat : IntermediateV1Compat(), Serializable {
     }
 
+    class IntermediateV3Compat : Serializable {
+        // name to binary or xml layout info map
+        @JvmField
+        internal var mLayoutInfoMap: MutableMap<String, ByteArray> = HashMap()
+    }
+
     open class IntermediateV1Compat : Serializable {
         // name to xml content map
         @JvmField
@@ -100,6 +111,8 @@ class V1CompatLayoutInfoLoader {
                 "android.databinding.annotationprocessor.ProcessExpressions\$IntermediateV1" to
                         IntermediateV1Compat::class.java,
                 "android.databinding.annotationprocessor.ProcessExpressions\$IntermediateV2" to
-                        IntermediateV2Compat::class.java)
+                        IntermediateV2Compat::class.java,
+                "android.databinding.annotationprocessor.ProcessExpressions\$IntermediateV3" to
+                        IntermediateV3Compat::class.java)
     }
 }
\ No newline at end of file
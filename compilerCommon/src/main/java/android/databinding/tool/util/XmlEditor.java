@@ -33,11 +33,13 @@ import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.misc.NotNull;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -57,8 +59,20 @@ public class XmlEditor {
         CommonTokenStream tokenStream = new CommonTokenStream(lexer);
         XMLParser parser = new XMLParser(tokenStream);
         XMLParser.DocumentContext expr = parser.document();
-        ElementContext root = expr.element();
+        return strip(f, expr.element(), FileUtils.readFileToString(f, encoding), newTag);
+    }
 
+    /**
+     * Strips a layout that has already been read and parsed.
+     *
+     * @param f The layout file, used in error messages.
+     * @param root The root element parsed from <code>content</code>.
+     * @param content The decoded content of the layout file.
+     * @param newTag The tag to give the views that need one.
+     * @return The stripped layout or null if it is not a binding layout.
+     */
+    public static String strip(File f, ElementContext root, String content, String newTag)
+            throws IOException {
         if (root == null || !"layout".equals(nodeName(root))) {
             return null; // not a binding layout
         }
@@ -71,7 +85,7 @@ public class XmlEditor {
         }
 
         ArrayList<String> lines = new ArrayList<String>();
-        lines.addAll(FileUtils.readLines(f, encoding));
+        lines.addAll(IOUtils.readLines(new StringReader(content)));
 
         for (ElementContext it : dataNodes) {
             replace(lines, toPosition(it.getStart()), toEndPosition(it.getStop()), "");
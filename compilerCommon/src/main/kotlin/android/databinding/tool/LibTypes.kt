@@ -52,6 +52,10 @@ class LibTypes(val useAndroidX: Boolean) {
         convert("android.databinding.ObservableMap")
     }
 
+    val observableSparseCollection by lazy(LazyThreadSafetyMode.NONE) {
+        convert("android.databinding.ObservableSparseCollection")
+    }
+
     val liveData by lazy(LazyThreadSafetyMode.NONE) {
         convert("android.arch.lifecycle.LiveData")
     }
@@ -110,7 +114,21 @@ class LibTypes(val useAndroidX: Boolean) {
                 "android.util.SparseIntArray",
                 "android.util.SparseLongArray",
                 "android.util.LongSparseArray",
-                "android.support.v4.util.LongSparseArray").map { convert(it) }
+                "android.support.v4.util.LongSparseArray",
+                "android.databinding.ObservableSparseArray",
+                "android.databinding.ObservableLongSparseArray",
+                "android.databinding.ObservableIntIntMap").map { convert(it) }
+    }
+
+    /**
+     * The observable lists that keep their items in primitive arrays and the type of their
+     * items.
+     */
+    val primitiveListClassNames by lazy(LazyThreadSafetyMode.NONE) {
+        mapOf("android.databinding.ObservableIntArrayList" to "int",
+                "android.databinding.ObservableLongArrayList" to "long",
+                "android.databinding.ObservableFloatArrayList" to "float")
+                .mapKeys { convert(it.key) }
     }
 
     val inverseBindingListener by lazy(LazyThreadSafetyMode.NONE) {
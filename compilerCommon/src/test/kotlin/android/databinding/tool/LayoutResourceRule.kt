@@ -58,6 +58,10 @@ class LayoutResourceRule(
         layoutFile.writeText(content)
     }
 
+    fun stripped(name: String, folder: String): String {
+        return File(File(strippedResDir, folder), "$name.xml").readText()
+    }
+
     fun parse(): Map<String, BaseLayoutModel> {
         val resourceBundle = ResourceBundle(appPackage, useAndroidX)
         realResDir.walkTopDown().filter { it.isFile }.forEach { file ->
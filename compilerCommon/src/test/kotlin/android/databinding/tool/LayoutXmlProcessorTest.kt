@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding.tool
+
+import android.databinding.tool.processing.ScopedException
+import android.databinding.tool.writer.JavaFileWriter
+import com.google.common.truth.Truth.assertThat
+import org.junit.Assert.fail
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+
+class LayoutXmlProcessorTest {
+    @get:Rule val temporaryFolder = TemporaryFolder()
+
+    private fun writeLayouts(resDir: File, count: Int) {
+        for (folder in listOf("layout", "layout-land")) {
+            val folderDir = File(resDir, folder)
+            folderDir.mkdirs()
+            for (i in 0 until count) {
+                File(folderDir, "layout_$i.xml").writeText(if (i % 3 == 0) """
+                    <LinearLayout xmlns:android="http://schemas.android.com/apk/res/android">
+                        <TextView android:text="@string/app_name" />
+                    </LinearLayout>
+                    """.trimIndent() else """
+                    <layout xmlns:android="http://schemas.android.com/apk/res/android">
+                        <data>
+                            <variable name="text$i" type="String" />
+                        </data>
+                        <LinearLayout android:id="@+id/root$i">
+                            <TextView android:id="@+id/text$i" android:text="@{text$i}" />
+                        </LinearLayout>
+                    </layout>
+                    """.trimIndent())
+            }
+        }
+    }
+
+    private fun process(resDir: File, parallel: Boolean): Pair<LayoutXmlProcessor, File> {
+        val outDir = temporaryFolder.newFolder()
+        val processor = LayoutXmlProcessor("com.example", NoOpWriter(), { null }, true, parallel)
+        processor.processResources(
+            LayoutXmlProcessor.ResourceInput(false, resDir, outDir), false, true)
+        return processor to outDir
+    }
+
+    @Test fun parallelMatchesSequential() {
+        val resDir = temporaryFolder.newFolder("res")
+        writeLayouts(resDir, 40)
+
+        val (sequential, sequentialOut) = process(resDir, parallel = false)
+        val (parallel, parallelOut) = process(resDir, parallel = true)
+
+        val sequentialBundles = sequential.resourceBundle.allLayoutFileBundlesInSource
+        val parallelBundles = parallel.resourceBundle.allLayoutFileBundlesInSource
+        assertThat(sequentialBundles).hasSize(52)
+        assertThat(parallelBundles.map { it.toXML() })
+            .containsExactlyElementsIn(sequentialBundles.map { it.toXML() })
+            .inOrder()
+        sequentialOut.walkTopDown().filter { it.isFile }.forEach { file ->
+            val parallelFile = File(parallelOut, file.toRelativeString(sequentialOut))
+            assertThat(parallelFile.readText()).isEqualTo(file.readText())
+        }
+    }
+
+    @Test fun parallelFailureKeepsType() {
+        val resDir = temporaryFolder.newFolder("res")
+        writeLayouts(resDir, 10)
+        File(resDir, "layout/broken.xml").writeText("")
+
+        try {
+            process(resDir, parallel = true)
+            fail()
+        } catch (e: ScopedException) {
+            assertThat(e.scopedErrorReport.filePath).endsWith("broken.xml")
+        }
+    }
+
+    private class NoOpWriter : JavaFileWriter() {
+        override fun writeToFile(canonicalName: String, contents: String) {}
+        override fun deleteFile(canonicalName: String) {}
+    }
+}
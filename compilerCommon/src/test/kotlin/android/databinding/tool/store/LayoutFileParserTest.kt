@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding.tool.store
+
+import android.databinding.tool.LayoutResourceRule
+import android.databinding.tool.processing.ScopedException
+import com.google.common.truth.Truth.assertThat
+import org.junit.Assert.fail
+import org.junit.Rule
+import org.junit.Test
+
+class LayoutFileParserTest {
+    @get:Rule val layouts = LayoutResourceRule(dataBindingEnabled = true)
+
+    @Test fun viewPaths() {
+        layouts.write("example", "layout", """
+            <layout xmlns:android="http://schemas.android.com/apk/res/android">
+                <data>
+                    <variable name="text" type="String" />
+                </data>
+                <LinearLayout android:id="@+id/root">
+                    <TextView android:id="@+id/first" android:text="@{text}" />
+                    <FrameLayout>
+                        <EditText android:id="@+id/input">
+                            <requestFocus />
+                        </EditText>
+                        <TextView android:id="@+id/label" android:text="@{text}" />
+                    </FrameLayout>
+                    <requestFocus />
+                    <TextView android:id="@+id/last" />
+                </LinearLayout>
+            </layout>
+            """.trimIndent())
+
+        val targets = layouts.parse().getValue("example").variations[0].bindingTargetBundles
+        val paths = targets.associate { it.id to it.viewPath }
+        assertThat(paths).containsExactly(
+            "@+id/root", "",
+            "@+id/first", "0",
+            "@+id/input", "1,0",
+            "@+id/label", "1,1",
+            "@+id/last", null
+        )
+    }
+
+    @Test fun viewPathsInMerge() {
+        layouts.write("example", "layout", """
+            <layout xmlns:android="http://schemas.android.com/apk/res/android">
+                <data>
+                    <variable name="text" type="String" />
+                </data>
+                <merge>
+                    <TextView android:id="@+id/first" android:text="@{text}" />
+                    <FrameLayout android:id="@+id/second">
+                        <TextView android:id="@+id/label" android:text="@{text}" />
+                    </FrameLayout>
+                </merge>
+            </layout>
+            """.trimIndent())
+
+        val targets = layouts.parse().getValue("example").variations[0].bindingTargetBundles
+        val paths = targets.associate { it.id to it.viewPath }
+        assertThat(paths).containsExactly(
+            "@+id/first", "0",
+            "@+id/second", "1",
+            "@+id/label", "1,0"
+        )
+    }
+
+    @Test fun strippedLayout() {
+        layouts.write("example", "layout", """
+            <?xml version="1.0" encoding="utf-8"?>
+            <layout xmlns:android="http://schemas.android.com/apk/res/android">
+                <data>
+                    <variable name="text" type="String" />
+                </data>
+                <LinearLayout android:orientation="vertical">
+                    <TextView android:text="@{text}" />
+                    <TextView android:text="plain" />
+                </LinearLayout>
+            </layout>
+            """.trimIndent())
+        layouts.write("plain", "layout", """
+            <LinearLayout xmlns:android="http://schemas.android.com/apk/res/android">
+                <TextView android:text="@string/app_name" />
+            </LinearLayout>
+            """.trimIndent())
+
+        layouts.parse()
+        val stripped = layouts.stripped("example", "layout")
+        assertThat(stripped).doesNotContain("<layout")
+        assertThat(stripped).doesNotContain("<data>")
+        assertThat(stripped).doesNotContain("@{")
+        assertThat(stripped).contains("android:tag=\"layout/example_0\"")
+        assertThat(stripped).contains("android:tag=\"binding_1\"")
+        assertThat(stripped).contains("android:text=\"plain\"")
+        assertThat(layouts.stripped("plain", "layout"))
+            .contains("android:text=\"@string/app_name\"")
+    }
+
+    @Test fun rootElementName() {
+        assertThat(LayoutFileParser.findRootElementName("""
+            <?xml version="1.0" encoding="utf-8"?>
+            <!-- <layout> -->
+            <layout xmlns:android="http://schemas.android.com/apk/res/android"/>
+            """.trimIndent())).isEqualTo("layout")
+        assertThat(LayoutFileParser.findRootElementName("\uFEFF<merge>")).isEqualTo("merge")
+        assertThat(LayoutFileParser.findRootElementName("<view/>")).isEqualTo("view")
+        assertThat(LayoutFileParser.findRootElementName("<!DOCTYPE layout><layout/>")).isNull()
+        assertThat(LayoutFileParser.findRootElementName("<!-- unterminated")).isNull()
+    }
+
+    @Test fun emptyLayout() {
+        layouts.write("example", "layout", "")
+
+        try {
+            layouts.parse()
+            fail()
+        } catch (e: ScopedException) {
+            assertThat(e.bareMessage).startsWith("Cannot find the root element")
+            val report = e.scopedErrorReport
+            assertThat(report.filePath).endsWith("example.xml")
+            assertThat(report.locations.single().startLine).isEqualTo(0)
+        }
+    }
+
+    @Test fun layoutWithoutRootElement() {
+        layouts.write("example", "layout", """
+            <?xml version="1.0" encoding="utf-8"?>
+            <!-- only a comment -->
+            text
+            """.trimIndent())
+
+        try {
+            layouts.parse()
+            fail()
+        } catch (e: ScopedException) {
+            assertThat(e.bareMessage).startsWith("Cannot find the root element")
+            assertThat(e.bareMessage).contains("extraneous input")
+            assertThat(e.scopedErrorReport.locations.single().startLine).isEqualTo(1)
+        }
+    }
+
+    @Test fun binaryRoundTrip() {
+        layouts.write("example", "layout", """
+            <layout xmlns:android="http://schemas.android.com/apk/res/android">
+                <data>
+                    <import type="java.util.List" />
+                    <variable name="items" type="List&lt;String>" />
+                    <variable name="text" type="String" />
+                </data>
+                <LinearLayout android:id="@+id/root">
+                    <TextView android:id="@+id/first" android:text="@{items[0]}" />
+                    <EditText android:text="@={text}" />
+                    <include layout="@layout/other" android:id="@+id/other" />
+                </LinearLayout>
+            </layout>
+            """.trimIndent())
+
+        val bundle = layouts.parse().getValue("example").variations[0]
+        val binary = bundle.toBinary()
+        assertThat(ResourceBundle.LayoutFileBundle.isBinary(binary)).isTrue()
+        val decoded = ResourceBundle.LayoutFileBundle.fromBytes(binary)
+        assertThat(decoded.toXML()).isEqualTo(bundle.toXML())
+        val fromXml = ResourceBundle.LayoutFileBundle.fromBytes(bundle.toXML().toByteArray())
+        assertThat(fromXml.toXML()).isEqualTo(bundle.toXML())
+    }
+}
@@ -188,7 +188,7 @@ object AndroidDataBinding {
     private fun createXmlProcessor(processXmlOptions: ProcessXmlOptions): LayoutXmlProcessor {
         val fileWriter = ExecFileWriter(processXmlOptions.resOutput)
         return LayoutXmlProcessor(processXmlOptions.appId, fileWriter, MyFileLookup(),
-                processXmlOptions.useAndroidX)
+                processXmlOptions.useAndroidX, processXmlOptions.parallel)
     }
 
     internal class MyFileLookup : LayoutXmlProcessor.OriginalFileLookup {
@@ -62,6 +62,13 @@ public class ProcessXmlOptions {
             description = "Specifies whether data binding should use androidX packages or not")
     private boolean useAndroidX = false;
 
+    @Parameter(names = "-parallel",
+            required = false,
+            arity = 1,
+            description = "Specifies whether layout files should be processed on all the "
+                    + "available cores")
+    private boolean parallel = false;
+
     public String getAppId() {
         return appId;
     }
@@ -110,6 +117,14 @@ public class ProcessXmlOptions {
         this.zipLayoutInfo = zipLayoutInfo;
     }
 
+    public boolean getParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     @Override
     public String toString() {
         return "ProcessXmlOptions{" +
@@ -119,6 +134,7 @@ public class ProcessXmlOptions {
                 ", layoutInfoOutput=" + layoutInfoOutput +
                 ", zipLayoutInfo=" + zipLayoutInfo +
                 ", useAndroidX=" + useAndroidX +
+                ", parallel=" + parallel +
                 '}';
     }
 }
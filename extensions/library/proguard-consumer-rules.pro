@@ -1,2 +1,7 @@
 # instant apps load these via reflection so we need to keep them.
 -keep public class * extends androidx.databinding.DataBinderMapper
+
+# bindings generated with atomic dirty flags find these fields by name.
+-keepclassmembers class * extends androidx.databinding.ViewDataBinding {
+    volatile long mDirtyFlags*;
+}
@@ -21,10 +21,37 @@ import androidx.annotation.NonNull;
 /**
  * A convenience class that implements {@link android.databinding.Observable} interface and provides
  * {@link #notifyPropertyChanged(int)} and {@link #notifyChange} methods.
+ * <p>
+ * Notifications can be batched with {@link #beginUpdate()} and {@link #endUpdate()}, or with
+ * {@link #runInBatch(Runnable)}. While a batch is open, notifications are collected instead of
+ * being sent. When the outermost batch ends, each changed property is notified once or, if
+ * many properties changed, a single {@link #notifyChange()} is sent instead.
+ * <p>
+ * Callbacks are kept in a {@link PropertyChangeRegistry}. Callbacks that declared the
+ * properties they observe, such as those of generated bindings, are notified after the other
+ * callbacks, so callbacks are not always notified in the order they were added.
  */
 public class BaseObservable implements Observable {
+    /**
+     * The number of distinct properties that may be notified individually at the end of a
+     * batch. Past this, a single notification for all properties is sent instead.
+     */
+    private static final int MAX_BATCHED_PROPERTIES = 8;
+
     private transient PropertyChangeRegistry mCallbacks;
 
+    /** The nesting level of {@link #beginUpdate()} calls. */
+    private transient int mBatchDepth;
+
+    /** True when all properties must be notified when the batch ends. */
+    private transient boolean mBatchedAllChanged;
+
+    /** The distinct BR ids notified during the batch, in the order they were first notified. */
+    private transient int[] mBatchedPropertyIds;
+
+    /** The number of valid entries in mBatchedPropertyIds. */
+    private transient int mBatchedPropertyCount;
+
     public BaseObservable() {
     }
 
@@ -56,6 +83,10 @@ public class BaseObservable implements Observable {
             if (mCallbacks == null) {
                 return;
             }
+            if (mBatchDepth > 0) {
+                mBatchedAllChanged = true;
+                return;
+            }
         }
         mCallbacks.notifyCallbacks(this, 0, null);
     }
@@ -72,7 +103,102 @@ public class BaseObservable implements Observable {
             if (mCallbacks == null) {
                 return;
             }
+            if (mBatchDepth > 0) {
+                addBatchedProperty(fieldId);
+                return;
+            }
         }
         mCallbacks.notifyCallbacks(this, fieldId, null);
     }
+
+    /**
+     * Starts a batch of changes. Until the matching {@link #endUpdate()}, calls to
+     * {@link #notifyPropertyChanged(int)} and {@link #notifyChange()} are collected and sent
+     * once when the outermost batch ends. Batches may be nested.
+     *
+     * @see #runInBatch(Runnable)
+     */
+    public void beginUpdate() {
+        synchronized (this) {
+            mBatchDepth++;
+        }
+    }
+
+    /**
+     * Ends a batch started with {@link #beginUpdate()}. When the outermost batch ends, every
+     * property notified during the batch is notified once, or all properties are notified
+     * together if all of them or many of them changed.
+     *
+     * @throws IllegalStateException if there is no batch to end.
+     */
+    public void endUpdate() {
+        final boolean allChanged;
+        final int[] propertyIds;
+        final int propertyCount;
+        synchronized (this) {
+            if (mBatchDepth == 0) {
+                throw new IllegalStateException("endUpdate() called without beginUpdate()");
+            }
+            mBatchDepth--;
+            if (mBatchDepth > 0 || mCallbacks == null) {
+                return;
+            }
+            allChanged = mBatchedAllChanged;
+            propertyIds = mBatchedPropertyIds;
+            propertyCount = mBatchedPropertyCount;
+            mBatchedAllChanged = false;
+            mBatchedPropertyIds = null;
+            mBatchedPropertyCount = 0;
+        }
+        if (allChanged) {
+            mCallbacks.notifyCallbacks(this, 0, null);
+        } else {
+            for (int i = 0; i < propertyCount; i++) {
+                mCallbacks.notifyCallbacks(this, propertyIds[i], null);
+            }
+        }
+    }
+
+    /**
+     * Runs <code>changes</code> in a batch so that the notifications it causes are sent once
+     * after it completes.
+     *
+     * @param changes The code that modifies this Observable.
+     * @see #beginUpdate()
+     */
+    public void runInBatch(@NonNull Runnable changes) {
+        beginUpdate();
+        try {
+            changes.run();
+        } finally {
+            endUpdate();
+        }
+    }
+
+    /**
+     * Records that fieldId changed during the current batch. Must be called while holding
+     * the lock.
+     */
+    private void addBatchedProperty(int fieldId) {
+        if (mBatchedAllChanged) {
+            return;
+        }
+        if (fieldId == 0) {
+            mBatchedAllChanged = true;
+            return;
+        }
+        for (int i = 0; i < mBatchedPropertyCount; i++) {
+            if (mBatchedPropertyIds[i] == fieldId) {
+                return;
+            }
+        }
+        if (mBatchedPropertyCount == MAX_BATCHED_PROPERTIES) {
+            mBatchedAllChanged = true;
+            return;
+        }
+        if (mBatchedPropertyIds == null) {
+            mBatchedPropertyIds = new int[MAX_BATCHED_PROPERTIES];
+        }
+        mBatchedPropertyIds[mBatchedPropertyCount++] = fieldId;
+    }
 }
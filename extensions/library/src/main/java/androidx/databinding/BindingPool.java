@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.databinding;
+
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps released bindings so that they can be bound to other data without inflating their
+ * layout and finding their Views again.
+ * <p>
+ * Bindings are kept by layout id. A binding returned with {@link #release(int, ViewDataBinding)}
+ * is {@link ViewDataBinding#resetForReuse() reset}: it stops observing its variables and
+ * forgets them. Set its variables again after acquiring it.
+ * <p>
+ * A BindingPool may only be used from the main thread.
+ *
+ * @param <T> The type of the bindings in the pool.
+ */
+@MainThread
+public class BindingPool<T extends ViewDataBinding> {
+    private static final int DEFAULT_MAX_PER_LAYOUT = 5;
+
+    private final int mMaxPerLayout;
+
+    private final SparseArray<ArrayList<T>> mBindings = new SparseArray<ArrayList<T>>();
+
+    /**
+     * Creates a pool that keeps up to 5 bindings for each layout.
+     */
+    public BindingPool() {
+        this(DEFAULT_MAX_PER_LAYOUT);
+    }
+
+    /**
+     * Creates a pool that keeps up to <code>maxPerLayout</code> bindings for each layout.
+     *
+     * @param maxPerLayout The maximum number of released bindings kept for each layout id.
+     */
+    public BindingPool(int maxPerLayout) {
+        if (maxPerLayout < 0) {
+            throw new IllegalArgumentException("maxPerLayout must not be negative");
+        }
+        mMaxPerLayout = maxPerLayout;
+    }
+
+    /**
+     * Returns a released binding for <code>layoutId</code> and removes it from the pool.
+     *
+     * @param layoutId The layout resource ID of the binding.
+     * @return A released binding or <code>null</code> if the pool has none for the layout.
+     */
+    @Nullable
+    public T acquire(int layoutId) {
+        final ArrayList<T> bindings = mBindings.get(layoutId);
+        if (bindings == null || bindings.isEmpty()) {
+            return null;
+        }
+        return bindings.remove(bindings.size() - 1);
+    }
+
+    /**
+     * Returns a released binding for <code>layoutId</code> or, if the pool has none, inflates
+     * the layout. The root of the binding is not attached to <code>parent</code>.
+     *
+     * @param inflater The LayoutInflater used to inflate the binding layout.
+     * @param layoutId The layout resource ID of the layout to inflate.
+     * @param parent Optional view that provides a set of LayoutParams values for the root of
+     *               an inflated hierarchy.
+     * @return A released or newly-created binding.
+     */
+    @NonNull
+    public T acquire(@NonNull LayoutInflater inflater, int layoutId,
+            @Nullable ViewGroup parent) {
+        final T binding = acquire(layoutId);
+        if (binding != null) {
+            return binding;
+        }
+        return DataBindingUtil.inflate(inflater, layoutId, parent, false);
+    }
+
+    /**
+     * Resets <code>binding</code> and keeps it for a later {@link #acquire(int)}. The root of the
+     * binding is removed from its parent, so that the pool does not keep the parent alive. If the
+     * pool already keeps as many bindings for <code>layoutId</code> as allowed, the binding is
+     * dropped. Releasing a binding that the pool already keeps does nothing.
+     *
+     * @param layoutId The layout resource ID that <code>binding</code> was inflated from.
+     * @param binding The binding to release. It must not be used again until it is acquired.
+     */
+    public void release(int layoutId, @NonNull T binding) {
+        ArrayList<T> bindings = mBindings.get(layoutId);
+        if (bindings == null) {
+            bindings = new ArrayList<T>();
+            mBindings.put(layoutId, bindings);
+        } else if (bindings.contains(binding)) {
+            return;
+        }
+        binding.resetForReuse();
+        if (bindings.size() < mMaxPerLayout) {
+            final View root = binding.getRoot();
+            final ViewParent parent = root.getParent();
+            if (parent instanceof ViewGroup) {
+                ((ViewGroup) parent).removeView(root);
+            }
+            bindings.add(binding);
+        }
+    }
+
+    /**
+     * Drops all released bindings.
+     */
+    public void clear() {
+        mBindings.clear();
+    }
+}
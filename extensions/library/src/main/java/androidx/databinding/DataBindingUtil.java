@@ -17,6 +17,9 @@
 package androidx.databinding;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.view.InflateException;
@@ -25,6 +28,8 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewParent;
 
+import java.util.concurrent.Executor;
+
 /**
  * Utility class to create {@link ViewDataBinding} from layouts.
  */
@@ -131,6 +136,100 @@ public class DataBindingUtil {
         }
     }
 
+    /**
+     * Inflates a binding layout on <code>executor</code> and creates its binding on the calling
+     * thread. This uses the DataBindingComponent set in
+     * {@link #setDefaultComponent(DataBindingComponent)}.
+     * <p>
+     * The inflated hierarchy is not attached to <code>parent</code>. If inflating on the
+     * executor fails, for example because a View must be created on a thread with a Looper,
+     * the layout is inflated again on the calling thread.
+     *
+     * @param <T> Type of the generated binding class.
+     * @param inflater The LayoutInflater used to inflate the binding layout. A clone of it
+     *                 inflates on the executor, so it must support inflating on a background
+     *                 thread.
+     * @param layoutId The layout resource ID of the layout to inflate. It must not be a merge
+     *                 layout.
+     * @param parent Optional view that provides a set of LayoutParams values for the root of
+     *               the inflated hierarchy.
+     * @param executor The executor on which to inflate the layout.
+     * @param listener Called on the calling thread with the newly-created binding, or with
+     *                 <code>null</code> if the layoutId wasn't for a binding layout.
+     * @throws IllegalStateException When called from a thread without a Looper.
+     * @see #setDefaultComponent(DataBindingComponent)
+     */
+    public static <T extends ViewDataBinding> void inflateAsync(@NonNull LayoutInflater inflater,
+            int layoutId, @Nullable ViewGroup parent, @NonNull Executor executor,
+            @NonNull OnInflateFinishedListener<T> listener) {
+        inflateAsync(inflater, layoutId, parent, sDefaultComponent, executor, listener);
+    }
+
+    /**
+     * Inflates a binding layout on <code>executor</code> and creates its binding on the calling
+     * thread.
+     * <p>
+     * The inflated hierarchy is not attached to <code>parent</code>. If inflating on the
+     * executor fails, for example because a View must be created on a thread with a Looper,
+     * the layout is inflated again on the calling thread.
+     *
+     * @param <T> Type of the generated binding class.
+     * @param inflater The LayoutInflater used to inflate the binding layout. A clone of it
+     *                 inflates on the executor, so it must support inflating on a background
+     *                 thread.
+     * @param layoutId The layout resource ID of the layout to inflate. It must not be a merge
+     *                 layout.
+     * @param parent Optional view that provides a set of LayoutParams values for the root of
+     *               the inflated hierarchy.
+     * @param bindingComponent The DataBindingComponent to use in the binding.
+     * @param executor The executor on which to inflate the layout.
+     * @param listener Called on the calling thread with the newly-created binding, or with
+     *                 <code>null</code> if the layoutId wasn't for a binding layout.
+     * @throws IllegalStateException When called from a thread without a Looper.
+     */
+    public static <T extends ViewDataBinding> void inflateAsync(
+            @NonNull final LayoutInflater inflater, final int layoutId,
+            @Nullable final ViewGroup parent,
+            @Nullable final DataBindingComponent bindingComponent, @NonNull Executor executor,
+            @NonNull final OnInflateFinishedListener<T> listener) {
+        final Looper looper = Looper.myLooper();
+        if (looper == null) {
+            throw new IllegalStateException("inflateAsync must be called from a thread with a "
+                    + "Looper");
+        }
+        final Handler handler = new Handler(looper);
+        // LayoutInflater keeps state while it inflates, so the calling thread must not share
+        // the instance inflating on the executor.
+        final LayoutInflater backgroundInflater = inflater.cloneInContext(inflater.getContext());
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                View inflated;
+                try {
+                    inflated = backgroundInflater.inflate(layoutId, parent, false);
+                } catch (RuntimeException e) {
+                    Log.w("DataBinding", "Unable to inflate the layout on the executor, "
+                            + "inflating it on the calling thread instead", e);
+                    inflated = null;
+                }
+                final View root = inflated;
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        final T binding;
+                        if (root == null) {
+                            binding = inflate(inflater, layoutId, parent, false,
+                                    bindingComponent);
+                        } else {
+                            binding = bind(bindingComponent, root, layoutId);
+                        }
+                        listener.onInflateFinished(binding);
+                    }
+                });
+            }
+        });
+    }
+
     /**
      * Returns the binding for the given layout root or creates a binding if one
      * does not exist. This uses the DataBindingComponent set in
@@ -306,6 +405,28 @@ public class DataBindingUtil {
         return bindToAddedViews(bindingComponent, contentView, 0, layoutId);
     }
 
+    /**
+     * Loads the binding mappers of dynamic feature modules on <code>executor</code>. Without
+     * this, they are loaded on the main thread the first time a layout that is not in the base
+     * module is bound.
+     * <p>
+     * Call this early, such as in {@link android.app.Application#onCreate()}. Binding a layout
+     * while the mappers are loading waits for them to finish.
+     *
+     * @param executor The executor on which to load the mappers.
+     */
+    public static void preloadMappers(@NonNull Executor executor) {
+        if (sMapper instanceof MergedDataBinderMapper) {
+            final MergedDataBinderMapper mapper = (MergedDataBinderMapper) sMapper;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    mapper.preloadFeatures();
+                }
+            });
+        }
+    }
+
     /**
      * Converts the given BR id to its string representation which might be useful for logging
      * purposes.
@@ -333,4 +454,20 @@ public class DataBindingUtil {
             return bind(component, children, layoutId);
         }
     }
+
+    /**
+     * Receives the binding created by
+     * {@link #inflateAsync(LayoutInflater, int, ViewGroup, Executor, OnInflateFinishedListener)}.
+     *
+     * @param <T> Type of the generated binding class.
+     */
+    public interface OnInflateFinishedListener<T extends ViewDataBinding> {
+        /**
+         * Called when the layout was inflated and bound.
+         *
+         * @param binding The newly-created binding or <code>null</code> if the layout wasn't a
+         *                binding layout.
+         */
+        void onInflateFinished(T binding);
+    }
 }
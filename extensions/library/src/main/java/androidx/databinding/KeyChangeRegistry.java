@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.databinding;
+
+import androidx.annotation.NonNull;
+import androidx.core.util.Pools;
+
+/**
+ * Utility class for managing ObservableSparseCollection callbacks.
+ */
+public class KeyChangeRegistry
+        extends
+        CallbackRegistry<ObservableSparseCollection.OnKeyChangedCallback,
+                ObservableSparseCollection, KeyChangeRegistry.KeyChange> {
+    private static final Pools.SynchronizedPool<KeyChange> sKeyChanges =
+            new Pools.SynchronizedPool<KeyChange>(10);
+
+    private static final int ALL = 0;
+    private static final int KEY = 1;
+
+    private static final CallbackRegistry.NotifierCallback<
+            ObservableSparseCollection.OnKeyChangedCallback, ObservableSparseCollection,
+            KeyChange> NOTIFIER_CALLBACK = new CallbackRegistry.NotifierCallback<
+            ObservableSparseCollection.OnKeyChangedCallback, ObservableSparseCollection,
+            KeyChange>() {
+        @Override
+        public void onNotifyCallback(ObservableSparseCollection.OnKeyChangedCallback callback,
+                ObservableSparseCollection sender, int notificationType, KeyChange keyChange) {
+            if (notificationType == KEY) {
+                callback.onKeyChanged(sender, keyChange.key);
+            } else {
+                callback.onChanged(sender);
+            }
+        }
+    };
+
+    public KeyChangeRegistry() {
+        super(NOTIFIER_CALLBACK);
+    }
+
+    /**
+     * Notify registered callbacks that any number of keys changed.
+     *
+     * @param sender The collection that changed.
+     */
+    public void notifyChanged(@NonNull ObservableSparseCollection sender) {
+        notifyCallbacks(sender, ALL, null);
+    }
+
+    /**
+     * Notify registered callbacks that the value of a key was added, changed or removed.
+     *
+     * @param sender The collection that changed.
+     * @param key The key whose value changed.
+     */
+    public void notifyKeyChanged(@NonNull ObservableSparseCollection sender, long key) {
+        KeyChange keyChange = sKeyChanges.acquire();
+        if (keyChange == null) {
+            keyChange = new KeyChange();
+        }
+        keyChange.key = key;
+        notifyCallbacks(sender, KEY, keyChange);
+    }
+
+    @Override
+    public void notifyCallbacks(@NonNull ObservableSparseCollection sender,
+            int notificationType, KeyChange keyChange) {
+        super.notifyCallbacks(sender, notificationType, keyChange);
+        if (keyChange != null) {
+            sKeyChanges.release(keyChange);
+        }
+    }
+
+    static class KeyChange {
+        public long key;
+    }
+}
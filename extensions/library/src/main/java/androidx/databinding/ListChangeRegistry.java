@@ -131,7 +131,7 @@ public class ListChangeRegistry
     }
 
     @Override
-    public synchronized void notifyCallbacks(@NonNull ObservableList sender, int notificationType,
+    public void notifyCallbacks(@NonNull ObservableList sender, int notificationType,
             ListChanges listChanges) {
         super.notifyCallbacks(sender, notificationType, listChanges);
         if (listChanges != null) {
@@ -143,6 +143,16 @@ public class ListChangeRegistry
         super(NOTIFIER_CALLBACK);
     }
 
+    /**
+     * Creates a ListChangeRegistry.
+     *
+     * @param snapshotNotifications true to notify callbacks from a copy-on-write snapshot
+     *                              without locking. See {@link CallbackRegistry}.
+     */
+    public ListChangeRegistry(boolean snapshotNotifications) {
+        super(NOTIFIER_CALLBACK, snapshotNotifications);
+    }
+
     static class ListChanges {
         public int start;
         public int count;
@@ -0,0 +1,459 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.databinding;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Calculates the list change notifications that turn one list into another.
+ * <p>
+ * Items are matched with Eugene Myers' linear space O((N+M)D) difference algorithm. Old items
+ * left unmatched are then paired with unmatched new items that are equal and the same item,
+ * which become moves. The result is a script of removals, moves, insertions and changes that
+ * can be sent in order to list callbacks. Contiguous edits are merged into range events, so a
+ * large block of inserted or removed items is a single event. When the script needs more than
+ * {@link #MAX_EVENTS} events, or matching the items takes more than {@link #MAX_DIFF_WORK}
+ * steps, the script is replaced by a reset of the whole list.
+ */
+final class ListDiff {
+    static final int INSERTED = 1;
+    static final int REMOVED = 2;
+    static final int CHANGED = 3;
+    static final int MOVED = 4;
+
+    /**
+     * The maximum number of events in a script. Lists that need more are notified with a
+     * single change of the whole list, which is cheaper for the callbacks than that many
+     * notifications.
+     */
+    static final int MAX_EVENTS = 64;
+
+    /**
+     * The maximum number of steps, mostly item comparisons, spent matching the items of the
+     * two lists. Lists that differ in so many scattered items are notified with a single change
+     * of the whole list.
+     */
+    static final int MAX_DIFF_WORK = 1 << 22;
+
+    /** The script, stored as (type, start or from, count or to) triples. */
+    private int[] mEvents = new int[3 * 8];
+
+    /** The number of events in mEvents. */
+    private int mEventCount;
+
+    /** True when the whole list must be notified as changed instead of sending the script. */
+    private boolean mReset;
+
+    private ListDiff() {
+    }
+
+    /**
+     * @return true if the lists differ too much for a script, in which case the script is
+     * empty.
+     */
+    public boolean isReset() {
+        return mReset;
+    }
+
+    /**
+     * @return The number of events in the script.
+     */
+    public int size() {
+        return mEventCount;
+    }
+
+    /**
+     * @return The type of the event at <code>index</code>: INSERTED, REMOVED, CHANGED or MOVED.
+     */
+    public int getType(int index) {
+        return mEvents[index * 3];
+    }
+
+    /**
+     * @return The start position of the event or, for a move, the position moved from.
+     */
+    public int getStart(int index) {
+        return mEvents[index * 3 + 1];
+    }
+
+    /**
+     * @return The number of items in the event or, for a move, the position moved to.
+     */
+    public int getCount(int index) {
+        return mEvents[index * 3 + 2];
+    }
+
+    /**
+     * Calculates the events that turn <code>oldList</code> into <code>newList</code>.
+     */
+    static <T> ListDiff calculate(List<? extends T> oldList, List<? extends T> newList,
+            ObservableArrayList.ItemDiffer<? super T> differ) {
+        final Matcher<T> matcher = new Matcher<T>(oldList, newList, differ);
+        final ListDiff diff = new ListDiff();
+        if (!matcher.match(0, oldList.size(), 0, newList.size())) {
+            diff.mReset = true;
+            return diff;
+        }
+        matcher.matchMoves();
+        if (!diff.build(matcher)) {
+            diff.mEventCount = 0;
+            diff.mReset = true;
+        }
+        return diff;
+    }
+
+    /**
+     * Builds the script. Each inserted range and move shifts the simulated positions, which
+     * takes O(N) and happens at most MAX_EVENTS times.
+     *
+     * @return false if the script needs more than MAX_EVENTS events.
+     */
+    private boolean build(Matcher<?> matcher) {
+        final int[] oldToNew = matcher.mOldToNew;
+        final int[] newToOld = matcher.mNewToOld;
+        final boolean[] moved = matcher.mMoved;
+
+        // Remove from the end so that the positions of earlier items stay valid.
+        for (int i = oldToNew.length - 1; i >= 0; i--) {
+            if (oldToNew[i] == -1 && !addEvent(REMOVED, i, 1)) {
+                return false;
+            }
+        }
+        // The old positions of the items in the list as it is after the events so far.
+        final int[] current = new int[newToOld.length];
+        int size = 0;
+        for (int i = 0; i < oldToNew.length; i++) {
+            if (oldToNew[i] != -1) {
+                current[size++] = i;
+            }
+        }
+
+        // For each new position, the closest earlier position holding an item that does not move.
+        final int[] previousAnchor = new int[newToOld.length];
+        int anchor = -1;
+        for (int j = 0; j < newToOld.length; j++) {
+            previousAnchor[j] = anchor;
+            if (newToOld[j] != -1 && !moved[newToOld[j]]) {
+                anchor = j;
+            }
+        }
+
+        for (int j = 0; j < newToOld.length; j++) {
+            final int expected = newToOld[j];
+            if (expected == -1) {
+                // insert the whole range of new items at once
+                int end = j + 1;
+                while (end < newToOld.length && newToOld[end] == -1) {
+                    end++;
+                }
+                final int count = end - j;
+                System.arraycopy(current, j, current, end, size - j);
+                Arrays.fill(current, j, end, -1);
+                size += count;
+                if (!addEvent(INSERTED, j, count)) {
+                    return false;
+                }
+                j = end - 1;
+                continue;
+            }
+            while (current[j] != expected) {
+                final int blocking = current[j];
+                final int target = oldToNew[blocking];
+                final int blockingAnchor = moved[blocking] ? previousAnchor[target] : -1;
+                if (blockingAnchor >= j) {
+                    // Move an item that belongs further down to just after its anchor.
+                    final int to = indexOf(current, j, size, newToOld[blockingAnchor]);
+                    move(current, j, to);
+                    if (!addEvent(MOVED, j, to)) {
+                        return false;
+                    }
+                } else {
+                    final int from = indexOf(current, j, size, expected);
+                    move(current, from, j);
+                    if (!addEvent(MOVED, from, j)) {
+                        return false;
+                    }
+                }
+            }
+            if (!matcher.areContentsTheSame(expected, j) && !addEvent(CHANGED, j, 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(int[] positions, int start, int end, int position) {
+        for (int i = start; i < end; i++) {
+            if (positions[i] == position) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the value at <code>from</code> to <code>to</code>, shifting the values between.
+     */
+    private static void move(int[] positions, int from, int to) {
+        final int value = positions[from];
+        if (from < to) {
+            System.arraycopy(positions, from + 1, positions, from, to - from);
+        } else {
+            System.arraycopy(positions, to, positions, to + 1, from - to);
+        }
+        positions[to] = value;
+    }
+
+    /**
+     * Appends an event to the script, merging it into the previous event when both describe
+     * one contiguous range.
+     *
+     * @return false if the script would have more than MAX_EVENTS events.
+     */
+    private boolean addEvent(int type, int start, int count) {
+        if (mEventCount > 0 && type != MOVED) {
+            final int last = (mEventCount - 1) * 3;
+            if (mEvents[last] == type) {
+                final int lastStart = mEvents[last + 1];
+                final int lastCount = mEvents[last + 2];
+                if (type == REMOVED && start + count == lastStart) {
+                    mEvents[last + 1] = start;
+                    mEvents[last + 2] = lastCount + count;
+                    return true;
+                } else if (type != REMOVED && start == lastStart + lastCount) {
+                    mEvents[last + 2] = lastCount + count;
+                    return true;
+                }
+            }
+        }
+        if (mEventCount == MAX_EVENTS) {
+            return false;
+        }
+        if (mEvents.length == mEventCount * 3) {
+            mEvents = Arrays.copyOf(mEvents, mEvents.length * 2);
+        }
+        final int index = mEventCount * 3;
+        mEvents[index] = type;
+        mEvents[index + 1] = start;
+        mEvents[index + 2] = count;
+        mEventCount++;
+        return true;
+    }
+
+    /**
+     * Finds the longest common subsequence of two lists using the middle snake divide and
+     * conquer algorithm from "An O(ND) Difference Algorithm and Its Variations".
+     */
+    private static class Matcher<T> {
+        private final List<? extends T> mOldList;
+        private final List<? extends T> mNewList;
+        private final ObservableArrayList.ItemDiffer<? super T> mDiffer;
+        final int[] mOldToNew;
+        final int[] mNewToOld;
+        final boolean[] mMoved;
+        private int[] mForward;
+        private int[] mBackward;
+
+        /** The steps left before matching gives up, see MAX_DIFF_WORK. */
+        private int mWorkLeft = MAX_DIFF_WORK;
+
+        Matcher(List<? extends T> oldList, List<? extends T> newList,
+                ObservableArrayList.ItemDiffer<? super T> differ) {
+            mOldList = oldList;
+            mNewList = newList;
+            mDiffer = differ;
+            mOldToNew = new int[oldList.size()];
+            mNewToOld = new int[newList.size()];
+            mMoved = new boolean[oldList.size()];
+            Arrays.fill(mOldToNew, -1);
+            Arrays.fill(mNewToOld, -1);
+            final int max = (oldList.size() + newList.size() + 1) / 2;
+            mForward = new int[2 * max + 3];
+            mBackward = new int[2 * max + 3];
+        }
+
+        boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return mDiffer.areItemsTheSame(mOldList.get(oldPosition), mNewList.get(newPosition));
+        }
+
+        boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return mDiffer.areContentsTheSame(mOldList.get(oldPosition),
+                    mNewList.get(newPosition));
+        }
+
+        private void matchRange(int oldStart, int newStart, int count) {
+            for (int i = 0; i < count; i++) {
+                mOldToNew[oldStart + i] = newStart + i;
+                mNewToOld[newStart + i] = oldStart + i;
+            }
+        }
+
+        /**
+         * Matches the items of the two ranges.
+         *
+         * @return false if matching the ranges takes more than MAX_DIFF_WORK steps.
+         */
+        boolean match(int oldStart, int oldEnd, int newStart, int newEnd) {
+            while (oldStart < oldEnd && newStart < newEnd && areItemsTheSame(oldStart, newStart)) {
+                matchRange(oldStart++, newStart++, 1);
+            }
+            while (oldStart < oldEnd && newStart < newEnd
+                    && areItemsTheSame(oldEnd - 1, newEnd - 1)) {
+                matchRange(--oldEnd, --newEnd, 1);
+            }
+            if (oldStart == oldEnd || newStart == newEnd) {
+                return true;
+            }
+            final int[] snake = findMiddleSnake(oldStart, oldEnd, newStart, newEnd);
+            if (snake == null) {
+                return false;
+            }
+            final int snakeOldStart = snake[0];
+            final int snakeNewStart = snake[1];
+            final int snakeOldEnd = snake[2];
+            final int snakeNewEnd = snake[3];
+            if (!match(oldStart, snakeOldStart, newStart, snakeNewStart)) {
+                return false;
+            }
+            matchRange(snakeOldStart, snakeNewStart, snakeOldEnd - snakeOldStart);
+            return match(snakeOldEnd, oldEnd, snakeNewEnd, newEnd);
+        }
+
+        /**
+         * Returns the middle snake of the shortest edit script as
+         * {oldStart, newStart, oldEnd, newEnd}, in list positions, or null if the work left is
+         * used up before it is found.
+         */
+        private int[] findMiddleSnake(int oldStart, int oldEnd, int newStart, int newEnd) {
+            final int n = oldEnd - oldStart;
+            final int m = newEnd - newStart;
+            final int delta = n - m;
+            final boolean odd = (delta & 1) != 0;
+            final int max = (n + m + 1) / 2;
+            final int offset = max + 1;
+            final int[] forward = mForward;
+            final int[] backward = mBackward;
+            forward[offset + 1] = 0;
+            backward[offset + 1] = 0;
+            for (int d = 0; d <= max; d++) {
+                // each diagonal is one step, plus one per item compared along it
+                mWorkLeft -= 2 * (d + 1);
+                if (mWorkLeft < 0) {
+                    return null;
+                }
+                for (int k = -d; k <= d; k += 2) {
+                    int x;
+                    if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+                        x = forward[offset + k + 1];
+                    } else {
+                        x = forward[offset + k - 1] + 1;
+                    }
+                    int y = x - k;
+                    final int startX = x;
+                    final int startY = y;
+                    while (x < n && y < m && areItemsTheSame(oldStart + x, newStart + y)) {
+                        x++;
+                        y++;
+                    }
+                    mWorkLeft -= x - startX;
+                    forward[offset + k] = x;
+                    final int backwardK = delta - k;
+                    if (odd && backwardK >= -(d - 1) && backwardK <= d - 1
+                            && x + backward[offset + backwardK] >= n) {
+                        return new int[] {oldStart + startX, newStart + startY,
+                                oldStart + x, newStart + y};
+                    }
+                }
+                for (int k = -d; k <= d; k += 2) {
+                    int x;
+                    if (k == -d
+                            || (k != d && backward[offset + k - 1] < backward[offset + k + 1])) {
+                        x = backward[offset + k + 1];
+                    } else {
+                        x = backward[offset + k - 1] + 1;
+                    }
+                    int y = x - k;
+                    final int startX = x;
+                    final int startY = y;
+                    while (x < n && y < m
+                            && areItemsTheSame(oldEnd - x - 1, newEnd - y - 1)) {
+                        x++;
+                        y++;
+                    }
+                    mWorkLeft -= x - startX;
+                    backward[offset + k] = x;
+                    final int forwardK = delta - k;
+                    if (!odd && forwardK >= -d && forwardK <= d
+                            && x + forward[offset + forwardK] >= n) {
+                        return new int[] {oldEnd - x, newEnd - y,
+                                oldEnd - startX, newEnd - startY};
+                    }
+                }
+            }
+            throw new IllegalStateException("No middle snake found. The ItemDiffer must be "
+                    + "consistent while the difference is calculated.");
+        }
+
+        /**
+         * Pairs unmatched old items with unmatched new items that are equal and the same item.
+         * Paired items are moved rather than removed and inserted again. The new items are
+         * looked up by equality, so that only candidates are passed to the ItemDiffer.
+         */
+        void matchMoves() {
+            // The first unmatched new position of each item and, for each new position, the
+            // next unmatched position holding an equal item.
+            final HashMap<Object, Integer> first = new HashMap<Object, Integer>();
+            final int[] next = new int[mNewToOld.length];
+            for (int j = mNewToOld.length - 1; j >= 0; j--) {
+                if (mNewToOld[j] == -1) {
+                    final Integer following = first.put(mNewList.get(j), j);
+                    next[j] = following == null ? -1 : following;
+                }
+            }
+            if (first.isEmpty()) {
+                return;
+            }
+            for (int i = 0; i < mOldToNew.length; i++) {
+                if (mOldToNew[i] != -1) {
+                    continue;
+                }
+                final Object item = mOldList.get(i);
+                final Integer head = first.get(item);
+                int previous = -1;
+                int j = head == null ? -1 : head;
+                while (j != -1 && !areItemsTheSame(i, j)) {
+                    previous = j;
+                    j = next[j];
+                }
+                if (j == -1) {
+                    continue;
+                }
+                mOldToNew[i] = j;
+                mNewToOld[j] = i;
+                mMoved[i] = true;
+                if (previous != -1) {
+                    next[previous] = next[j];
+                } else if (next[j] == -1) {
+                    first.remove(item);
+                } else {
+                    first.put(item, next[j]);
+                }
+            }
+        }
+    }
+}
@@ -37,6 +37,16 @@ public class MapChangeRegistry
         super(NOTIFIER_CALLBACK);
     }
 
+    /**
+     * Creates a MapChangeRegistry.
+     *
+     * @param snapshotNotifications true to notify callbacks from a copy-on-write snapshot
+     *                              without locking. See {@link CallbackRegistry}.
+     */
+    public MapChangeRegistry(boolean snapshotNotifications) {
+        super(NOTIFIER_CALLBACK, snapshotNotifications);
+    }
+
     /**
      * Notifies registered callbacks that an element has been added, removed, or changed.
      *
@@ -18,11 +18,14 @@ package androidx.databinding;
 
 
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.View;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -41,6 +44,26 @@ public class MergedDataBinderMapper extends DataBinderMapper {
      * cannot find a binding.
      */
     private List<String> mFeatureBindingMappers = new CopyOnWriteArrayList<>();
+    /**
+     * The features whose mapper class could not be loaded. Lookups skip them until a mapper is
+     * added or the features are preloaded again, which may happen after a feature is installed.
+     */
+    private Set<String> mMissingFeatureMappers = new HashSet<>();
+    /**
+     * Guards mLayoutIdMappers and mBrIdNames. It is not this, so that lookups do not wait while
+     * {@link #preloadFeatures()} loads classes.
+     */
+    private final Object mIndexLock = new Object();
+    /**
+     * The mapper that created a binding for each layout id, filled in as layouts are bound so
+     * that later lookups do not go through all mappers.
+     */
+    private final SparseArray<DataBinderMapper> mLayoutIdMappers = new SparseArray<>();
+    private Map<String, Integer> mTagLayoutIds = new ConcurrentHashMap<>();
+    /**
+     * The names of the BR ids found so far.
+     */
+    private final SparseArray<String> mBrIdNames = new SparseArray<>();
 
     /**
      * Adds the provided mapper to the list of mappers unless an instance of it already exists
@@ -51,28 +74,47 @@ public class MergedDataBinderMapper extends DataBinderMapper {
      * @param mapper The new DataBinderMapper to add to the list of mappers.
      */
     @SuppressWarnings("WeakerAccess")
-    public void addMapper(DataBinderMapper mapper) {
+    public synchronized void addMapper(DataBinderMapper mapper) {
+        mMissingFeatureMappers.clear();
+        addMapperAndDependencies(mapper);
+    }
+
+    private void addMapperAndDependencies(DataBinderMapper mapper) {
         Class<? extends DataBinderMapper> mapperClass = mapper.getClass();
         if (mExistingMappers.add(mapperClass)) {
             mMappers.add(mapper);
             final List<DataBinderMapper> dependencies = mapper.collectDependencies();
             for(DataBinderMapper dependency : dependencies) {
-                addMapper(dependency);
+                addMapperAndDependencies(dependency);
             }
         }
     }
 
     @SuppressWarnings({"WeakerAccess", "unused"})
-    protected void addMapper(String featureMapper) {
+    protected synchronized void addMapper(String featureMapper) {
+        mMissingFeatureMappers.clear();
         mFeatureBindingMappers.add(featureMapper + ".DataBinderMapperImpl");
     }
 
     @Override
     public ViewDataBinding getDataBinder(DataBindingComponent bindingComponent, View view,
             int layoutId) {
+        final DataBinderMapper indexed;
+        synchronized (mIndexLock) {
+            indexed = mLayoutIdMappers.get(layoutId);
+        }
+        if (indexed != null) {
+            ViewDataBinding result = indexed.getDataBinder(bindingComponent, view, layoutId);
+            if (result != null) {
+                return result;
+            }
+        }
         for(DataBinderMapper mapper : mMappers) {
             ViewDataBinding result = mapper.getDataBinder(bindingComponent, view, layoutId);
             if (result != null) {
+                synchronized (mIndexLock) {
+                    mLayoutIdMappers.put(layoutId, mapper);
+                }
                 return result;
             }
         }
@@ -85,9 +127,22 @@ public class MergedDataBinderMapper extends DataBinderMapper {
     @Override
     public ViewDataBinding getDataBinder(DataBindingComponent bindingComponent, View[] view,
             int layoutId) {
+        final DataBinderMapper indexed;
+        synchronized (mIndexLock) {
+            indexed = mLayoutIdMappers.get(layoutId);
+        }
+        if (indexed != null) {
+            ViewDataBinding result = indexed.getDataBinder(bindingComponent, view, layoutId);
+            if (result != null) {
+                return result;
+            }
+        }
         for(DataBinderMapper mapper : mMappers) {
             ViewDataBinding result = mapper.getDataBinder(bindingComponent, view, layoutId);
             if (result != null) {
+                synchronized (mIndexLock) {
+                    mLayoutIdMappers.put(layoutId, mapper);
+                }
                 return result;
             }
         }
@@ -99,9 +154,14 @@ public class MergedDataBinderMapper extends DataBinderMapper {
 
     @Override
     public int getLayoutId(String tag) {
+        final Integer indexed = mTagLayoutIds.get(tag);
+        if (indexed != null) {
+            return indexed;
+        }
         for(DataBinderMapper mapper : mMappers) {
             int result = mapper.getLayoutId(tag);
             if (result != 0) {
+                mTagLayoutIds.put(tag, result);
                 return result;
             }
         }
@@ -113,9 +173,19 @@ public class MergedDataBinderMapper extends DataBinderMapper {
 
     @Override
     public String convertBrIdToString(int id) {
+        final String indexed;
+        synchronized (mIndexLock) {
+            indexed = mBrIdNames.get(id);
+        }
+        if (indexed != null) {
+            return indexed;
+        }
         for(DataBinderMapper mapper : mMappers) {
             String result = mapper.convertBrIdToString(id);
             if (result != null) {
+                synchronized (mIndexLock) {
+                    mBrIdNames.put(id, result);
+                }
                 return result;
             }
         }
@@ -125,26 +195,50 @@ public class MergedDataBinderMapper extends DataBinderMapper {
         return null;
     }
 
+    /**
+     * Loads the mappers of all features and their dependencies so that binding a layout of a
+     * feature for the first time does not load classes. This may be called from any thread.
+     */
+    synchronized void preloadFeatures() {
+        mMissingFeatureMappers.clear();
+        loadFeatures();
+    }
+
     /**
      * @return true if we load a new mapper
      */
-    private boolean loadFeatures() {
+    private synchronized boolean loadFeatures() {
         boolean found = false;
         for (String mapper : mFeatureBindingMappers) {
+            if (mMissingFeatureMappers.contains(mapper)) {
+                continue;
+            }
             try {
-                final Class<?> aClass = Class.forName(mapper);
+                final Class<?> aClass = loadFeatureMapperClass(mapper);
                 if (DataBinderMapper.class.isAssignableFrom(aClass)) {
-                    addMapper((DataBinderMapper) aClass.newInstance());
+                    addMapperAndDependencies((DataBinderMapper) aClass.newInstance());
                     mFeatureBindingMappers.remove(mapper);
                     found = true;
                 }
             } catch (ClassNotFoundException ignored) {
+                mMissingFeatureMappers.add(mapper);
             } catch (IllegalAccessException exception) {
                 Log.e(TAG, "unable to add feature mapper for " + mapper, exception);
             } catch (InstantiationException exception) {
                 Log.e(TAG, "unable to add feature mapper for " + mapper, exception);
             }
         }
+        if (found) {
+            // a new mapper was added, so try the missing ones again once
+            mMissingFeatureMappers.clear();
+        }
         return found;
     }
+
+    /**
+     * Loads the mapper class of a feature. Overridden by tests to count the lookups.
+     */
+    Class<?> loadFeatureMapperClass(String className) throws ClassNotFoundException {
+        return Class.forName(className);
+    }
 }
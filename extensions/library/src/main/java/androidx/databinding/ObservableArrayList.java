@@ -15,15 +15,64 @@
  */
 package androidx.databinding;
 
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * An {@link ObservableList} implementation using ArrayList as an implementation.
+ * <p>
+ * Many edits can be combined with {@link #beginUpdate()} and {@link #endUpdate()}, or with
+ * {@link #runInBatch(Runnable)}. The changes made during a batch are merged into as few range
+ * notifications as possible and sent when the outermost batch ends.
+ * <p>
+ * {@link #replaceAll(List, ItemDiffer)} replaces the contents of the list and notifies only
+ * the ranges of items that were inserted, removed, moved or changed, unless there are too many
+ * of them.
  */
 public class ObservableArrayList<T> extends ArrayList<T> implements ObservableList<T> {
+    private static final int INSERTED = 1;
+    private static final int REMOVED = 2;
+    private static final int CHANGED = 3;
+
+    /**
+     * The maximum number of merged range notifications sent when a batch ends. A batch that
+     * needs more sends a single {@link OnListChangedCallback#onChanged(ObservableList)}.
+     */
+    private static final int MAX_BATCHED_EVENTS = 8;
+
     private transient ListChangeRegistry mListeners = new ListChangeRegistry();
 
+    /** The nesting level of {@link #beginUpdate()} calls. */
+    private transient int mBatchDepth;
+
+    /** True when the batch will end with a notification that the whole list changed. */
+    private transient boolean mBatchReset;
+
+    /** Merged events recorded in the batch, stored as (type, start, count) triples. */
+    private transient int[] mBatchEvents;
+
+    /** The number of events in mBatchEvents. */
+    private transient int mBatchEventCount;
+
+    /**
+     * Counts the edits of the list, which are all notified. Unlike modCount, it also changes
+     * when an item is replaced with {@link #set(int, Object)}.
+     */
+    private transient int mWriteCount;
+
+    /**
+     * Counts the calls to replaceAll, so that the result of an asynchronous replaceAll is
+     * dropped when a later replaceAll has been requested.
+     */
+    private transient int mReplaceGeneration;
+
     @Override
     public void addOnListChangedCallback(OnListChangedCallback listener) {
         if (mListeners == null) {
@@ -101,9 +150,7 @@ public class ObservableArrayList<T> extends ArrayList<T> implements ObservableLi
     @Override
     public T set(int index, T object) {
         T val = super.set(index, object);
-        if (mListeners != null) {
-            mListeners.notifyChanged(this, index, 1);
-        }
+        notifyChange(index, 1);
         return val;
     }
 
@@ -113,15 +160,311 @@ public class ObservableArrayList<T> extends ArrayList<T> implements ObservableLi
         notifyRemove(fromIndex, toIndex - fromIndex);
     }
 
+    /**
+     * Replaces the contents of this list with <code>newContents</code>. The two lists are
+     * compared with <code>differ</code> and callbacks are notified of the items that were
+     * removed, moved, inserted or changed rather than of a full removal and insertion.
+     * An item is only reported as moved when its old and new objects are equal. Contiguous
+     * items are notified together, so inserting a block of items is a single notification.
+     * When the changes would need many notifications, callbacks are notified that the whole
+     * list changed instead.
+     * <p>
+     * The list holds its new contents before the first notification is sent.
+     *
+     * @param newContents The new contents of the list.
+     * @param differ Compares the old items with the new items.
+     */
+    public void replaceAll(@NonNull List<? extends T> newContents,
+            @NonNull ItemDiffer<? super T> differ) {
+        mReplaceGeneration++;
+        applyDiff(ListDiff.calculate(this, newContents, differ), newContents);
+    }
+
+    /**
+     * Replaces the contents of this list with <code>newContents</code>, calculating the
+     * difference on <code>diffExecutor</code>. The contents are replaced and the changes
+     * notified on the main thread once the difference is known. If the list is modified in
+     * the meantime, the difference is calculated again on the main thread. If replaceAll is
+     * called again before the difference is known, the contents of this call are dropped.
+     * <p>
+     * This must be called on the main thread.
+     *
+     * @param newContents The new contents of the list. It must not be modified until the
+     *                    contents are replaced.
+     * @param differ Compares the old items with the new items. It is called on
+     *               <code>diffExecutor</code>.
+     * @param diffExecutor The executor that calculates the difference.
+     * @see #replaceAll(List, ItemDiffer)
+     */
+    public void replaceAll(@NonNull final List<? extends T> newContents,
+            @NonNull final ItemDiffer<? super T> differ, @NonNull Executor diffExecutor) {
+        final ArrayList<T> oldContents = new ArrayList<T>(this);
+        final int expectedWriteCount = mWriteCount;
+        final int generation = ++mReplaceGeneration;
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        diffExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final ListDiff diff = ListDiff.calculate(oldContents, newContents, differ);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mReplaceGeneration != generation) {
+                            // superseded by a later replaceAll
+                            return;
+                        }
+                        if (mWriteCount == expectedWriteCount) {
+                            applyDiff(diff, newContents);
+                        } else {
+                            // the list was modified while the difference was calculated
+                            applyDiff(ListDiff.calculate(ObservableArrayList.this, newContents,
+                                    differ), newContents);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void applyDiff(ListDiff diff, List<? extends T> newContents) {
+        super.clear();
+        super.addAll(newContents);
+        if (diff.isReset()) {
+            notifyReset();
+            return;
+        }
+        for (int i = 0; i < diff.size(); i++) {
+            final int start = diff.getStart(i);
+            final int count = diff.getCount(i);
+            switch (diff.getType(i)) {
+                case ListDiff.INSERTED:
+                    notifyAdd(start, count);
+                    break;
+                case ListDiff.REMOVED:
+                    notifyRemove(start, count);
+                    break;
+                case ListDiff.MOVED:
+                    notifyMove(start, count);
+                    break;
+                default:
+                    notifyChange(start, count);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Starts a batch of edits. Until the matching {@link #endUpdate()}, changes to the list are
+     * recorded instead of being notified. Batches may be nested.
+     *
+     * @see #runInBatch(Runnable)
+     */
+    public void beginUpdate() {
+        mBatchDepth++;
+    }
+
+    /**
+     * Ends a batch started with {@link #beginUpdate()}. When the outermost batch ends, the
+     * recorded edits are sent as merged range notifications or, when there are too many of
+     * them, as a single {@link OnListChangedCallback#onChanged(ObservableList)}.
+     *
+     * @throws IllegalStateException if there is no batch to end.
+     */
+    public void endUpdate() {
+        if (mBatchDepth == 0) {
+            throw new IllegalStateException("endUpdate() called without beginUpdate()");
+        }
+        if (--mBatchDepth > 0) {
+            return;
+        }
+        final boolean reset = mBatchReset;
+        final int[] events = mBatchEvents;
+        final int eventCount = mBatchEventCount;
+        mBatchReset = false;
+        mBatchEvents = null;
+        mBatchEventCount = 0;
+        if (mListeners == null) {
+            return;
+        }
+        if (reset) {
+            mListeners.notifyChanged(this);
+            return;
+        }
+        for (int i = 0; i < eventCount; i++) {
+            final int start = events[i * 3 + 1];
+            final int count = events[i * 3 + 2];
+            switch (events[i * 3]) {
+                case INSERTED:
+                    mListeners.notifyInserted(this, start, count);
+                    break;
+                case REMOVED:
+                    mListeners.notifyRemoved(this, start, count);
+                    break;
+                default:
+                    mListeners.notifyChanged(this, start, count);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Runs <code>edits</code> in a batch so that the changes it makes are notified together
+     * after it completes.
+     *
+     * @param edits The code that modifies this list.
+     * @see #beginUpdate()
+     */
+    public void runInBatch(Runnable edits) {
+        beginUpdate();
+        try {
+            edits.run();
+        } finally {
+            endUpdate();
+        }
+    }
+
     private void notifyAdd(int start, int count) {
-        if (mListeners != null) {
+        mWriteCount++;
+        if (mBatchDepth > 0) {
+            addBatchEvent(INSERTED, start, count);
+        } else if (mListeners != null) {
             mListeners.notifyInserted(this, start, count);
         }
     }
 
     private void notifyRemove(int start, int count) {
-        if (mListeners != null) {
+        mWriteCount++;
+        if (mBatchDepth > 0) {
+            addBatchEvent(REMOVED, start, count);
+        } else if (mListeners != null) {
             mListeners.notifyRemoved(this, start, count);
         }
     }
+
+    private void notifyChange(int start, int count) {
+        mWriteCount++;
+        if (mBatchDepth > 0) {
+            addBatchEvent(CHANGED, start, count);
+        } else if (mListeners != null) {
+            mListeners.notifyChanged(this, start, count);
+        }
+    }
+
+    private void notifyMove(int from, int to) {
+        if (mBatchDepth > 0) {
+            // moves are not merged, so a batch containing one notifies a full change
+            notifyReset();
+        } else {
+            mWriteCount++;
+            if (mListeners != null) {
+                mListeners.notifyMoved(this, from, to, 1);
+            }
+        }
+    }
+
+    private void notifyReset() {
+        mWriteCount++;
+        if (mBatchDepth > 0) {
+            mBatchReset = true;
+            mBatchEvents = null;
+            mBatchEventCount = 0;
+        } else if (mListeners != null) {
+            mListeners.notifyChanged(this);
+        }
+    }
+
+    /**
+     * Records an edit made during a batch, merging it into the previous event when both
+     * describe one contiguous range.
+     */
+    private void addBatchEvent(int type, int start, int count) {
+        if (mBatchReset) {
+            return;
+        }
+        if (mBatchEventCount > 0) {
+            final int last = (mBatchEventCount - 1) * 3;
+            final int lastType = mBatchEvents[last];
+            final int lastStart = mBatchEvents[last + 1];
+            final int lastCount = mBatchEvents[last + 2];
+            final int lastEnd = lastStart + lastCount;
+            if (type == INSERTED && lastType == INSERTED) {
+                if (start >= lastStart && start <= lastEnd) {
+                    mBatchEvents[last + 2] = lastCount + count;
+                    return;
+                }
+            } else if (type == REMOVED && lastType == REMOVED) {
+                if (start == lastStart) {
+                    mBatchEvents[last + 2] = lastCount + count;
+                    return;
+                } else if (start + count == lastStart) {
+                    mBatchEvents[last + 1] = start;
+                    mBatchEvents[last + 2] = lastCount + count;
+                    return;
+                }
+            } else if (type == REMOVED && lastType == INSERTED) {
+                // removing items that were inserted in this batch cancels the insertion
+                if (start >= lastStart && start + count <= lastEnd) {
+                    if (lastCount == count) {
+                        mBatchEventCount--;
+                    } else {
+                        mBatchEvents[last + 2] = lastCount - count;
+                    }
+                    return;
+                }
+            } else if (type == CHANGED && lastType == CHANGED) {
+                if (start <= lastEnd && start + count >= lastStart) {
+                    final int mergedStart = Math.min(start, lastStart);
+                    mBatchEvents[last + 1] = mergedStart;
+                    mBatchEvents[last + 2] = Math.max(start + count, lastEnd) - mergedStart;
+                    return;
+                }
+            } else if (type == CHANGED && lastType == INSERTED) {
+                // the inserted items have not been seen yet, so there is nothing to change
+                if (start >= lastStart && start + count <= lastEnd) {
+                    return;
+                }
+            }
+        }
+        if (mBatchEventCount == MAX_BATCHED_EVENTS) {
+            mBatchReset = true;
+            mBatchEvents = null;
+            mBatchEventCount = 0;
+            return;
+        }
+        if (mBatchEvents == null) {
+            mBatchEvents = new int[MAX_BATCHED_EVENTS * 3];
+        }
+        final int index = mBatchEventCount * 3;
+        mBatchEvents[index] = type;
+        mBatchEvents[index + 1] = start;
+        mBatchEvents[index + 2] = count;
+        mBatchEventCount++;
+    }
+
+    /**
+     * Compares the items of two lists for {@link #replaceAll(List, ItemDiffer)}.
+     *
+     * @param <T> The type of the items.
+     */
+    public interface ItemDiffer<T> {
+        /**
+         * Returns whether the two objects represent the same item, for example because they
+         * have the same id.
+         *
+         * @param oldItem An item from the current contents of the list.
+         * @param newItem An item from the new contents of the list.
+         * @return true if the two objects represent the same item.
+         */
+        boolean areItemsTheSame(T oldItem, T newItem);
+
+        /**
+         * Returns whether an item has the same data in the old and new lists. Only called
+         * when {@link #areItemsTheSame(Object, Object)} returns true.
+         *
+         * @param oldItem An item from the current contents of the list.
+         * @param newItem The same item from the new contents of the list.
+         * @return true if the item has not changed.
+         */
+        boolean areContentsTheSame(T oldItem, T newItem);
+    }
 }
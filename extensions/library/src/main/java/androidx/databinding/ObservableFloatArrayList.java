@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.databinding;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * An {@link ObservableList} that keeps its items in a float array. Reading and writing items
+ * with {@link #getFloat(int)} and {@link #setFloat(int, float)} does not box them, and binding
+ * expressions such as <code>@{values[index]}</code> use {@link #getFloat(int)}.
+ * <p>
+ * {@link #addAll(float[])}, {@link #addAll(int, float[])} and {@link #setAll(int, float[])} notify
+ * the callbacks once for all the items they insert or change. The list cannot hold null
+ * items.
+ */
+public class ObservableFloatArrayList extends PrimitiveArrayList<Float> {
+    private static final float[] EMPTY = new float[0];
+
+    private float[] mValues;
+
+    /**
+     * Creates an empty list.
+     */
+    public ObservableFloatArrayList() {
+        mValues = EMPTY;
+    }
+
+    /**
+     * Creates an empty list that can hold <code>initialCapacity</code> items before growing.
+     *
+     * @param initialCapacity The initial length of the array holding the items.
+     */
+    public ObservableFloatArrayList(int initialCapacity) {
+        checkCapacity(initialCapacity);
+        mValues = initialCapacity == 0 ? EMPTY : new float[initialCapacity];
+    }
+
+    /**
+     * Creates a list holding a copy of <code>values</code>.
+     *
+     * @param values The initial items of the list.
+     */
+    public ObservableFloatArrayList(@NonNull float[] values) {
+        mValues = values.length == 0 ? EMPTY : values.clone();
+        mSize = values.length;
+    }
+
+    /**
+     * @param index The index of the item.
+     * @return The item at <code>index</code>.
+     * @throws IndexOutOfBoundsException if there is no item at <code>index</code>.
+     */
+    public float getFloat(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    /**
+     * Replaces the item at <code>index</code>. Callbacks are only notified if the value
+     * changes.
+     *
+     * @param index The index of the item.
+     * @param value The new value of the item.
+     * @return The previous value of the item.
+     * @throws IndexOutOfBoundsException if there is no item at <code>index</code>.
+     */
+    public float setFloat(int index, float value) {
+        checkIndex(index);
+        final float old = mValues[index];
+        // compares the bits so that NaN is unchanged when set again and -0f differs from 0f
+        if (Float.floatToIntBits(old) != Float.floatToIntBits(value)) {
+            mValues[index] = value;
+            notifyChanged(index, 1);
+        }
+        return old;
+    }
+
+    /**
+     * Adds <code>value</code> at the end of the list.
+     *
+     * @param value The item to add.
+     */
+    public void addFloat(float value) {
+        addFloat(mSize, value);
+    }
+
+    /**
+     * Inserts <code>value</code> at <code>index</code>.
+     *
+     * @param index The index of the new item.
+     * @param value The item to insert.
+     * @throws IndexOutOfBoundsException if <code>index</code> is negative or greater than the
+     * size of the list.
+     */
+    public void addFloat(int index, float value) {
+        openGap(index, 1);
+        mValues[index] = value;
+        notifyInserted(index, 1);
+    }
+
+    /**
+     * Adds <code>values</code> at the end of the list.
+     *
+     * @param values The items to add.
+     */
+    public void addAll(@NonNull float[] values) {
+        addAll(mSize, values);
+    }
+
+    /**
+     * Inserts <code>values</code> at <code>index</code>.
+     *
+     * @param index The index of the first new item.
+     * @param values The items to insert.
+     * @throws IndexOutOfBoundsException if <code>index</code> is negative or greater than the
+     * size of the list.
+     */
+    public void addAll(int index, @NonNull float[] values) {
+        insertItems(index, values, values.length);
+    }
+
+    /**
+     * Replaces the items from <code>index</code> on with <code>values</code>.
+     *
+     * @param index The index of the first item to replace.
+     * @param values The new values of the items.
+     * @throws IndexOutOfBoundsException if the list has fewer than
+     * <code>index + values.length</code> items.
+     */
+    public void setAll(int index, @NonNull float[] values) {
+        setItems(index, values, values.length);
+    }
+
+    /**
+     * Removes the item at <code>index</code>.
+     *
+     * @param index The index of the item to remove.
+     * @return The removed item.
+     * @throws IndexOutOfBoundsException if there is no item at <code>index</code>.
+     */
+    public float removeFloatAt(int index) {
+        checkIndex(index);
+        final float old = mValues[index];
+        removeItem(index);
+        return old;
+    }
+
+    /**
+     * @param value The value to look for.
+     * @return The index of the first item equal to <code>value</code> or -1 if there is none.
+     */
+    public int indexOfFloat(float value) {
+        final float[] values = mValues;
+        for (int i = 0; i < mSize; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return A new array holding the items of the list.
+     */
+    @NonNull
+    public float[] toFloatArray() {
+        return Arrays.copyOf(mValues, mSize);
+    }
+
+    @Override
+    public Float get(int index) {
+        return getFloat(index);
+    }
+
+    /**
+     * @throws NullPointerException if <code>value</code> is null.
+     */
+    @Override
+    public Float set(int index, Float value) {
+        return setFloat(index, checkNotNull(value));
+    }
+
+    /**
+     * @throws NullPointerException if <code>value</code> is null.
+     */
+    @Override
+    public void add(int index, Float value) {
+        addFloat(index, checkNotNull(value));
+    }
+
+    @Override
+    public Float remove(int index) {
+        return removeFloatAt(index);
+    }
+
+    @Override
+    Object array() {
+        return mValues;
+    }
+
+    @Override
+    int capacity() {
+        return mValues.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+        mValues = Arrays.copyOf(mValues, capacity);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.databinding;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * An {@link ObservableList} that keeps its items in an int array. Reading and writing items
+ * with {@link #getInt(int)} and {@link #setInt(int, int)} does not box them, and binding
+ * expressions such as <code>@{values[index]}</code> use {@link #getInt(int)}.
+ * <p>
+ * {@link #addAll(int[])}, {@link #addAll(int, int[])} and {@link #setAll(int, int[])} notify
+ * the callbacks once for all the items they insert or change. The list cannot hold null
+ * items.
+ */
+public class ObservableIntArrayList extends PrimitiveArrayList<Integer> {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] mValues;
+
+    /**
+     * Creates an empty list.
+     */
+    public ObservableIntArrayList() {
+        mValues = EMPTY;
+    }
+
+    /**
+     * Creates an empty list that can hold <code>initialCapacity</code> items before growing.
+     *
+     * @param initialCapacity The initial length of the array holding the items.
+     */
+    public ObservableIntArrayList(int initialCapacity) {
+        checkCapacity(initialCapacity);
+        mValues = initialCapacity == 0 ? EMPTY : new int[initialCapacity];
+    }
+
+    /**
+     * Creates a list holding a copy of <code>values</code>.
+     *
+     * @param values The initial items of the list.
+     */
+    public ObservableIntArrayList(@NonNull int[] values) {
+        mValues = values.length == 0 ? EMPTY : values.clone();
+        mSize = values.length;
+    }
+
+    /**
+     * @param index The index of the item.
+     * @return The item at <code>index</code>.
+     * @throws IndexOutOfBoundsException if there is no item at <code>index</code>.
+     */
+    public int getInt(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    /**
+     * Replaces the item at <code>index</code>. Callbacks are only notified if the value
+     * changes.
+     *
+     * @param index The index of the item.
+     * @param value The new value of the item.
+     * @return The previous value of the item.
+     * @throws IndexOutOfBoundsException if there is no item at <code>index</code>.
+     */
+    public int setInt(int index, int value) {
+        checkIndex(index);
+        final int old = mValues[index];
+        if (old != value) {
+            mValues[index] = value;
+            notifyChanged(index, 1);
+        }
+        return old;
+    }
+
+    /**
+     * Adds <code>value</code> at the end of the list.
+     *
+     * @param value The item to add.
+     */
+    public void addInt(int value) {
+        addInt(mSize, value);
+    }
+
+    /**
+     * Inserts <code>value</code> at <code>index</code>.
+     *
+     * @param index The index of the new item.
+     * @param value The item to insert.
+     * @throws IndexOutOfBoundsException if <code>index</code> is negative or greater than the
+     * size of the list.
+     */
+    public void addInt(int index, int value) {
+        openGap(index, 1);
+        mValues[index] = value;
+        notifyInserted(index, 1);
+    }
+
+    /**
+     * Adds <code>values</code> at the end of the list.
+     *
+     * @param values The items to add.
+     */
+    public void addAll(@NonNull int[] values) {
+        addAll(mSize, values);
+    }
+
+    /**
+     * Inserts <code>values</code> at <code>index</code>.
+     *
+     * @param index The index of the first new item.
+     * @param values The items to insert.
+     * @throws IndexOutOfBoundsException if <code>index</code> is negative or greater than the
+     * size of the list.
+     */
+    public void addAll(int index, @NonNull int[] values) {
+        insertItems(index, values, values.length);
+    }
+
+    /**
+     * Replaces the items from <code>index</code> on with <code>values</code>.
+     *
+     * @param index The index of the first item to replace.
+     * @param values The new values of the items.
+     * @throws IndexOutOfBoundsException if the list has fewer than
+     * <code>index + values.length</code> items.
+     */
+    public void setAll(int index, @NonNull int[] values) {
+        setItems(index, values, values.length);
+    }
+
+    /**
+     * Removes the item at <code>index</code>.
+     *
+     * @param index The index of the item to remove.
+     * @return The removed item.
+     * @throws IndexOutOfBoundsException if there is no item at <code>index</code>.
+     */
+    public int removeIntAt(int index) {
+        checkIndex(index);
+        final int old = mValues[index];
+        removeItem(index);
+        return old;
+    }
+
+    /**
+     * @param value The value to look for.
+     * @return The index of the first item equal to <code>value</code> or -1 if there is none.
+     */
+    public int indexOfInt(int value) {
+        final int[] values = mValues;
+        for (int i = 0; i < mSize; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return A new array holding the items of the list.
+     */
+    @NonNull
+    public int[] toIntArray() {
+        return Arrays.copyOf(mValues, mSize);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    /**
+     * @throws NullPointerException if <code>value</code> is null.
+     */
+    @Override
+    public Integer set(int index, Integer value) {
+        return setInt(index, checkNotNull(value));
+    }
+
+    /**
+     * @throws NullPointerException if <code>value</code> is null.
+     */
+    @Override
+    public void add(int index, Integer value) {
+        addInt(index, checkNotNull(value));
+    }
+
+    @Override
+    public Integer remove(int index) {
+        return removeIntAt(index);
+    }
+
+    @Override
+    Object array() {
+        return mValues;
+    }
+
+    @Override
+    int capacity() {
+        return mValues.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+        mValues = Arrays.copyOf(mValues, capacity);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.databinding;
+
+import android.util.SparseArray;
+
+import androidx.annotation.Nullable;
+
+/**
+ * An {@link ObservableSparseCollection} mapping int keys to objects. Like {@link SparseArray},
+ * which it is built on, it neither boxes the keys nor allocates an entry per mapping.
+ * Binding expressions such as <code>@{values[key]}</code> read it with {@link #get(int)}.
+ *
+ * @param <V> The type of the values.
+ */
+public class ObservableSparseArray<V> implements ObservableSparseCollection {
+    private final SparseArray<V> mValues;
+
+    private transient KeyChangeRegistry mListeners;
+
+    /**
+     * Creates an empty collection.
+     */
+    public ObservableSparseArray() {
+        mValues = new SparseArray<V>();
+    }
+
+    /**
+     * Creates an empty collection that can hold <code>initialCapacity</code> mappings before
+     * growing.
+     *
+     * @param initialCapacity The number of mappings to allocate space for.
+     */
+    public ObservableSparseArray(int initialCapacity) {
+        mValues = new SparseArray<V>(initialCapacity);
+    }
+
+    @Override
+    public void addOnKeyChangedCallback(
+            OnKeyChangedCallback<? extends ObservableSparseCollection> callback) {
+        if (mListeners == null) {
+            mListeners = new KeyChangeRegistry();
+        }
+        mListeners.add(callback);
+    }
+
+    @Override
+    public void removeOnKeyChangedCallback(
+            OnKeyChangedCallback<? extends ObservableSparseCollection> callback) {
+        if (mListeners != null) {
+            mListeners.remove(callback);
+        }
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The value mapped from <code>key</code> or null if there is none.
+     */
+    @Nullable
+    public V get(int key) {
+        return mValues.get(key);
+    }
+
+    /**
+     * @param key The key to look up.
+     * @param valueIfKeyNotFound The value to return if there is no mapping for
+     *                           <code>key</code>.
+     * @return The value mapped from <code>key</code> or <code>valueIfKeyNotFound</code>.
+     */
+    public V get(int key, V valueIfKeyNotFound) {
+        return mValues.get(key, valueIfKeyNotFound);
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return true if there is a mapping for <code>key</code>.
+     */
+    public boolean containsKey(int key) {
+        return mValues.indexOfKey(key) >= 0;
+    }
+
+    /**
+     * Maps <code>key</code> to <code>value</code>, replacing the previous mapping if any.
+     *
+     * @param key The key to map.
+     * @param value The new value of the key.
+     */
+    public void put(int key, V value) {
+        mValues.put(key, value);
+        notifyKeyChanged(key);
+    }
+
+    /**
+     * Removes the mapping from <code>key</code>, if any.
+     *
+     * @param key The key to remove.
+     */
+    public void remove(int key) {
+        final int index = mValues.indexOfKey(key);
+        if (index >= 0) {
+            mValues.removeAt(index);
+            notifyKeyChanged(key);
+        }
+    }
+
+    /**
+     * Removes the mapping at <code>index</code>.
+     *
+     * @param index The index of the mapping, between 0 and {@link #size()} - 1.
+     */
+    public void removeAt(int index) {
+        final int key = mValues.keyAt(index);
+        mValues.removeAt(index);
+        notifyKeyChanged(key);
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        if (mValues.size() != 0) {
+            mValues.clear();
+            if (mListeners != null) {
+                mListeners.notifyChanged(this);
+            }
+        }
+    }
+
+    /**
+     * @return The number of mappings.
+     */
+    public int size() {
+        return mValues.size();
+    }
+
+    /**
+     * @param index The index of the mapping, between 0 and {@link #size()} - 1.
+     * @return The key of the mapping at <code>index</code>. Keys are in ascending order.
+     */
+    public int keyAt(int index) {
+        return mValues.keyAt(index);
+    }
+
+    /**
+     * @param index The index of the mapping, between 0 and {@link #size()} - 1.
+     * @return The value of the mapping at <code>index</code>.
+     */
+    public V valueAt(int index) {
+        return mValues.valueAt(index);
+    }
+
+    /**
+     * Replaces the value of the mapping at <code>index</code>.
+     *
+     * @param index The index of the mapping, between 0 and {@link #size()} - 1.
+     * @param value The new value of the mapping.
+     */
+    public void setValueAt(int index, V value) {
+        final int key = mValues.keyAt(index);
+        mValues.setValueAt(index, value);
+        notifyKeyChanged(key);
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The index of the mapping from <code>key</code> or a negative number if there is
+     * none.
+     */
+    public int indexOfKey(int key) {
+        return mValues.indexOfKey(key);
+    }
+
+    @Override
+    public String toString() {
+        return mValues.toString();
+    }
+
+    private void notifyKeyChanged(int key) {
+        if (mListeners != null) {
+            mListeners.notifyKeyChanged(this, key);
+        }
+    }
+}
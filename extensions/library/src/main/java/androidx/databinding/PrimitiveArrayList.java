@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.databinding;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The base of the {@link ObservableList}s that keep their items in a primitive array. It keeps
+ * track of the size of the list, moves items when the list grows or shrinks and notifies the
+ * callbacks. Subclasses own the array and box items only for the {@link java.util.List}
+ * methods.
+ *
+ * @param <T> The boxed type of the items.
+ */
+abstract class PrimitiveArrayList<T> extends AbstractList<T>
+        implements ObservableList<T>, RandomAccess {
+    private static final int MIN_CAPACITY_INCREMENT = 12;
+
+    private transient ListChangeRegistry mListeners;
+
+    /** The number of items in the list. The array may be larger. */
+    int mSize;
+
+    /**
+     * @return The array holding the items.
+     */
+    abstract Object array();
+
+    /**
+     * @return The length of the array holding the items.
+     */
+    abstract int capacity();
+
+    /**
+     * Replaces the array with one of length <code>capacity</code> holding the same items.
+     */
+    abstract void resize(int capacity);
+
+    @Override
+    public void addOnListChangedCallback(OnListChangedCallback listener) {
+        if (mListeners == null) {
+            mListeners = new ListChangeRegistry();
+        }
+        mListeners.add(listener);
+    }
+
+    @Override
+    public void removeOnListChangedCallback(OnListChangedCallback listener) {
+        if (mListeners != null) {
+            mListeners.remove(listener);
+        }
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public void clear() {
+        final int oldSize = mSize;
+        if (oldSize != 0) {
+            mSize = 0;
+            modCount++;
+            notifyRemoved(0, oldSize);
+        }
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > mSize) {
+            throw new IndexOutOfBoundsException("Invalid range " + fromIndex + ".." + toIndex
+                    + " for size " + mSize);
+        }
+        if (fromIndex == toIndex) {
+            return;
+        }
+        closeGap(fromIndex, toIndex - fromIndex);
+        notifyRemoved(fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Inserts the first <code>count</code> items of <code>values</code> at <code>index</code>
+     * and notifies the callbacks once.
+     *
+     * @param values An array of the same type as {@link #array()}.
+     */
+    void insertItems(int index, Object values, int count) {
+        if (count == 0) {
+            checkPositionIndex(index);
+            return;
+        }
+        openGap(index, count);
+        System.arraycopy(values, 0, array(), index, count);
+        notifyInserted(index, count);
+    }
+
+    /**
+     * Replaces <code>count</code> items from <code>index</code> on with the first items of
+     * <code>values</code> and notifies the callbacks once.
+     *
+     * @param values An array of the same type as {@link #array()}.
+     */
+    void setItems(int index, Object values, int count) {
+        if (index < 0 || index + count > mSize) {
+            throw new IndexOutOfBoundsException("Cannot set " + count + " items at " + index
+                    + ", size is " + mSize);
+        }
+        if (count == 0) {
+            return;
+        }
+        System.arraycopy(values, 0, array(), index, count);
+        notifyChanged(index, count);
+    }
+
+    /**
+     * Removes the item at <code>index</code>, which must exist, and notifies the callbacks.
+     */
+    void removeItem(int index) {
+        closeGap(index, 1);
+        notifyRemoved(index, 1);
+    }
+
+    /**
+     * Makes sure that the list can hold <code>minCapacity</code> items without growing its
+     * array.
+     *
+     * @param minCapacity The number of items the list must be able to hold.
+     */
+    public void ensureCapacity(int minCapacity) {
+        final int capacity = capacity();
+        if (minCapacity > capacity) {
+            final int increment = capacity < MIN_CAPACITY_INCREMENT / 2
+                    ? MIN_CAPACITY_INCREMENT : capacity >> 1;
+            resize(Math.max(minCapacity, capacity + increment));
+        }
+    }
+
+    /**
+     * Shrinks the array holding the items to the size of the list.
+     */
+    public void trimToSize() {
+        if (capacity() != mSize) {
+            resize(mSize);
+        }
+    }
+
+    /**
+     * Moves the items from <code>index</code> on <code>count</code> places up, growing the
+     * array if needed. The moved-from items are left unchanged.
+     */
+    void openGap(int index, int count) {
+        checkPositionIndex(index);
+        ensureCapacity(mSize + count);
+        final Object array = array();
+        System.arraycopy(array, index, array, index + count, mSize - index);
+        mSize += count;
+        modCount++;
+    }
+
+    /**
+     * Removes <code>count</code> items from <code>index</code> on by moving the items after
+     * them down.
+     */
+    void closeGap(int index, int count) {
+        final Object array = array();
+        System.arraycopy(array, index + count, array, index, mSize - index - count);
+        mSize -= count;
+        modCount++;
+    }
+
+    /**
+     * Throws an IllegalArgumentException if <code>initialCapacity</code> is negative.
+     */
+    static void checkCapacity(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative");
+        }
+    }
+
+    /**
+     * Throws a NullPointerException if <code>value</code>, an item passed to a
+     * {@link java.util.List} method, is null. The list cannot hold null items.
+     */
+    static <V> V checkNotNull(V value) {
+        if (value == null) {
+            throw new NullPointerException("The list cannot hold null items");
+        }
+        return value;
+    }
+
+    /**
+     * Throws an IndexOutOfBoundsException if there is no item at <code>index</code>.
+     */
+    void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Invalid index " + index + ", size is " + mSize);
+        }
+    }
+
+    /**
+     * Throws an IndexOutOfBoundsException if items cannot be inserted at <code>index</code>.
+     */
+    void checkPositionIndex(int index) {
+        if (index < 0 || index > mSize) {
+            throw new IndexOutOfBoundsException("Invalid index " + index + ", size is " + mSize);
+        }
+    }
+
+    void notifyInserted(int start, int count) {
+        if (mListeners != null) {
+            mListeners.notifyInserted(this, start, count);
+        }
+    }
+
+    void notifyRemoved(int start, int count) {
+        if (mListeners != null) {
+            mListeners.notifyRemoved(this, start, count);
+        }
+    }
+
+    void notifyChanged(int start, int count) {
+        if (mListeners != null) {
+            mListeners.notifyChanged(this, start, count);
+        }
+    }
+}
@@ -16,13 +16,37 @@
 package androidx.databinding;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Utility class for managing Observable callbacks.
+ * <p>
+ * Callbacks that implement {@link PropertyFilter}, or that are added with
+ * {@link #add(Observable.OnPropertyChangedCallback, int[])}, are indexed by the BR ids they
+ * are interested in. A change to a single property only notifies the callbacks indexed under
+ * that property and those that did not declare any interest, while a change to all properties
+ * (<code>BR._all</code>) notifies every callback.
+ * <p>
+ * The callbacks that did not declare any interest are notified first, followed by the
+ * filtered callbacks, so callbacks are not always notified in the order they were added.
+ * The filtered callbacks are notified from an immutable snapshot without holding any lock, as
+ * with snapshot notifications in {@link CallbackRegistry}: a filtered callback removed during
+ * a notification may still receive that notification, but not the following ones.
  */
 public class PropertyChangeRegistry extends
         CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void> {
 
+    /**
+     * The value of <code>BR._all</code>, which indicates that all properties have changed.
+     */
+    private static final int ALL_PROPERTIES = 0;
+
+    private static final Object[] EMPTY_CALLBACKS = new Object[0];
+
     private static final CallbackRegistry.NotifierCallback<Observable.OnPropertyChangedCallback, Observable, Void> NOTIFIER_CALLBACK = new CallbackRegistry.NotifierCallback<Observable.OnPropertyChangedCallback, Observable, Void>() {
         @Override
         public void onNotifyCallback(Observable.OnPropertyChangedCallback callback, Observable sender,
@@ -31,10 +55,27 @@ public class PropertyChangeRegistry extends
         }
     };
 
+    /**
+     * The callbacks that declared the properties they are interested in, indexed by property
+     * id. This is replaced rather than modified, while holding the lock of this registry, so
+     * that notifications can read it without locking.
+     */
+    private volatile PropertyIndex mPropertyIndex = PropertyIndex.EMPTY;
+
     public PropertyChangeRegistry() {
         super(NOTIFIER_CALLBACK);
     }
 
+    /**
+     * Creates a PropertyChangeRegistry.
+     *
+     * @param snapshotNotifications true to notify callbacks from a copy-on-write snapshot
+     *                              without locking. See {@link CallbackRegistry}.
+     */
+    public PropertyChangeRegistry(boolean snapshotNotifications) {
+        super(NOTIFIER_CALLBACK, snapshotNotifications);
+    }
+
     /**
      * Notifies registered callbacks that a specific property has changed.
      *
@@ -45,4 +86,227 @@ public class PropertyChangeRegistry extends
     public void notifyChange(@NonNull Observable observable, int propertyId) {
         notifyCallbacks(observable, propertyId, null);
     }
+
+    @Override
+    public void notifyCallbacks(Observable sender, int propertyId, Void arg) {
+        super.notifyCallbacks(sender, propertyId, arg);
+        final PropertyIndex index = mPropertyIndex;
+        final Object[] filtered;
+        if (propertyId == ALL_PROPERTIES) {
+            filtered = index.allCallbacks;
+        } else {
+            filtered = index.get(propertyId);
+        }
+        if (filtered != null) {
+            for (int i = 0; i < filtered.length; i++) {
+                ((Observable.OnPropertyChangedCallback) filtered[i])
+                        .onPropertyChanged(sender, propertyId);
+            }
+        }
+    }
+
+    /**
+     * Adds a callback to be notified. If the callback implements {@link PropertyFilter} and
+     * returns property ids, it is only notified when one of those properties or all
+     * properties change.
+     *
+     * @param callback The callback to add.
+     */
+    @Override
+    public synchronized void add(Observable.OnPropertyChangedCallback callback) {
+        if (callback instanceof PropertyFilter) {
+            final int[] propertyIds = ((PropertyFilter) callback).getObservedPropertyIds();
+            if (propertyIds != null) {
+                add(callback, propertyIds);
+                return;
+            }
+        }
+        super.add(callback);
+    }
+
+    /**
+     * Adds a callback that is only notified when one of the given properties changes or when
+     * all properties change (<code>BR._all</code>).
+     *
+     * @param callback The callback to add.
+     * @param propertyIds The BR ids of the properties that callback is interested in.
+     */
+    public synchronized void add(@NonNull Observable.OnPropertyChangedCallback callback,
+            @NonNull int[] propertyIds) {
+        if (callback == null) {
+            throw new IllegalArgumentException("callback cannot be null");
+        }
+        mPropertyIndex = mPropertyIndex.with(callback, propertyIds);
+    }
+
+    @Override
+    public synchronized void remove(Observable.OnPropertyChangedCallback callback) {
+        super.remove(callback);
+        mPropertyIndex = mPropertyIndex.without(callback);
+    }
+
+    @Override
+    public synchronized ArrayList<Observable.OnPropertyChangedCallback> copyCallbacks() {
+        ArrayList<Observable.OnPropertyChangedCallback> callbacks = super.copyCallbacks();
+        addFilteredCallbacks(callbacks);
+        return callbacks;
+    }
+
+    @Override
+    public synchronized void copyCallbacks(List<Observable.OnPropertyChangedCallback> callbacks) {
+        super.copyCallbacks(callbacks);
+        addFilteredCallbacks(callbacks);
+    }
+
+    private void addFilteredCallbacks(List<Observable.OnPropertyChangedCallback> callbacks) {
+        final Object[] filtered = mPropertyIndex.allCallbacks;
+        for (int i = 0; i < filtered.length; i++) {
+            callbacks.add((Observable.OnPropertyChangedCallback) filtered[i]);
+        }
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return super.isEmpty() && mPropertyIndex.allCallbacks.length == 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        mPropertyIndex = PropertyIndex.EMPTY;
+    }
+
+    @Override
+    public synchronized PropertyChangeRegistry clone() {
+        // the index is immutable, so the clone can share it
+        return (PropertyChangeRegistry) super.clone();
+    }
+
+    /**
+     * Implemented by an {@link Observable.OnPropertyChangedCallback} that is only interested in
+     * some of the properties of the Observables it is added to. A {@link PropertyChangeRegistry}
+     * will skip the callback when other properties change, but will always notify it when all
+     * properties change.
+     */
+    public interface PropertyFilter {
+        /**
+         * Returns the BR ids of the properties that this callback should be notified about.
+         * This is read once, when the callback is added.
+         *
+         * @return The BR ids this callback is interested in or null to be notified of
+         * changes to every property.
+         */
+        @Nullable
+        int[] getObservedPropertyIds();
+    }
+
+    /**
+     * An immutable, sorted mapping from property id to the callbacks interested in it.
+     */
+    private static class PropertyIndex {
+        static final PropertyIndex EMPTY =
+                new PropertyIndex(EMPTY_CALLBACKS, new int[0], new Object[0][]);
+
+        /**
+         * Every indexed callback, in the order they were added.
+         */
+        final Object[] allCallbacks;
+
+        final int[] propertyIds;
+
+        /**
+         * The callbacks interested in each of propertyIds, in the order they were added.
+         */
+        final Object[][] callbacks;
+
+        PropertyIndex(Object[] allCallbacks, int[] propertyIds, Object[][] callbacks) {
+            this.allCallbacks = allCallbacks;
+            this.propertyIds = propertyIds;
+            this.callbacks = callbacks;
+        }
+
+        Object[] get(int propertyId) {
+            final int index = Arrays.binarySearch(propertyIds, propertyId);
+            return index < 0 ? null : callbacks[index];
+        }
+
+        /**
+         * Returns an index in which callback is also interested in propertyIds.
+         */
+        PropertyIndex with(Object callback, int[] propertyIds) {
+            final Object[] allCallbacks = append(this.allCallbacks, callback);
+            int[] ids = this.propertyIds;
+            Object[][] callbacks = this.callbacks;
+            for (int propertyId : propertyIds) {
+                if (propertyId == ALL_PROPERTIES) {
+                    continue;
+                }
+                int index = Arrays.binarySearch(ids, propertyId);
+                if (index < 0) {
+                    index = -(index + 1);
+                    final int size = ids.length;
+                    final int[] newIds = new int[size + 1];
+                    final Object[][] newCallbacks = new Object[size + 1][];
+                    System.arraycopy(ids, 0, newIds, 0, index);
+                    System.arraycopy(callbacks, 0, newCallbacks, 0, index);
+                    newIds[index] = propertyId;
+                    newCallbacks[index] = EMPTY_CALLBACKS;
+                    System.arraycopy(ids, index, newIds, index + 1, size - index);
+                    System.arraycopy(callbacks, index, newCallbacks, index + 1, size - index);
+                    ids = newIds;
+                    callbacks = newCallbacks;
+                } else if (callbacks == this.callbacks) {
+                    callbacks = callbacks.clone();
+                }
+                callbacks[index] = append(callbacks[index], callback);
+            }
+            return new PropertyIndex(allCallbacks, ids, callbacks);
+        }
+
+        /**
+         * Returns an index without callback. Property ids keep their entry, even when it is
+         * empty, as the properties are likely to be observed again.
+         */
+        PropertyIndex without(Object callback) {
+            if (indexOf(allCallbacks, callback) < 0) {
+                return this;
+            }
+            final Object[][] newCallbacks = new Object[callbacks.length][];
+            for (int i = 0; i < callbacks.length; i++) {
+                newCallbacks[i] = remove(callbacks[i], callback);
+            }
+            return new PropertyIndex(remove(allCallbacks, callback), propertyIds, newCallbacks);
+        }
+
+        private static Object[] append(Object[] callbacks, Object callback) {
+            if (indexOf(callbacks, callback) >= 0) {
+                return callbacks;
+            }
+            final Object[] newCallbacks = new Object[callbacks.length + 1];
+            System.arraycopy(callbacks, 0, newCallbacks, 0, callbacks.length);
+            newCallbacks[callbacks.length] = callback;
+            return newCallbacks;
+        }
+
+        private static Object[] remove(Object[] callbacks, Object callback) {
+            final int index = indexOf(callbacks, callback);
+            if (index < 0) {
+                return callbacks;
+            }
+            final Object[] newCallbacks = new Object[callbacks.length - 1];
+            System.arraycopy(callbacks, 0, newCallbacks, 0, index);
+            System.arraycopy(callbacks, index + 1, newCallbacks, index,
+                    newCallbacks.length - index);
+            return newCallbacks;
+        }
+
+        private static int indexOf(Object[] callbacks, Object callback) {
+            for (int i = 0; i < callbacks.length; i++) {
+                if (callback.equals(callbacks[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
 }
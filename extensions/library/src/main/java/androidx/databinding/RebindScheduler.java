@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.databinding;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewParent;
+
+import java.util.ArrayList;
+
+import static android.os.Build.VERSION.SDK_INT;
+
+/**
+ * Schedules the rebinds requested by {@link ViewDataBinding}s.
+ * <p>
+ * Each thread with a Looper has one scheduler. It keeps the bindings that requested a rebind
+ * and uses a single frame callback to rebind all of them. Bindings whose root View contains
+ * another binding's root View are rebound first.
+ * <p>
+ * Bindings with {@link #PRIORITY_LOW} are only rebound while the time spent rebinding in the
+ * current frame is less than the {@link #setFrameTimeBudget(long) frame time budget}. The
+ * remaining ones are rebound in the next frame. At least one binding is rebound in every
+ * frame.
+ * <p>
+ * When the thread becomes idle, the scheduler also removes the listeners of bindings that were
+ * garbage collected from the observables they were registered with. Bindings collected while
+ * the thread is already idle are handled at the next rebind, the next listener registration
+ * or the next time the thread becomes idle.
+ */
+public final class RebindScheduler {
+    /**
+     * The default rebind priority. Bindings with this priority are always rebound in the frame
+     * after they request it.
+     *
+     * @see ViewDataBinding#setRebindPriority(int)
+     */
+    public static final int PRIORITY_DEFAULT = 0;
+
+    /**
+     * A rebind priority for bindings that may be rebound in a later frame when rebinding
+     * takes longer than the frame time budget.
+     *
+     * @see ViewDataBinding#setRebindPriority(int)
+     */
+    public static final int PRIORITY_LOW = 1;
+
+    private static final boolean USE_CHOREOGRAPHER = SDK_INT >= 16;
+
+    private static final long DEFAULT_FRAME_TIME_BUDGET_NANOS = 8000000L;
+
+    private static volatile long sFrameTimeBudgetNanos = DEFAULT_FRAME_TIME_BUDGET_NANOS;
+
+    private static final ThreadLocal<RebindScheduler> sScheduler =
+            new ThreadLocal<RebindScheduler>() {
+                @Override
+                protected RebindScheduler initialValue() {
+                    return new RebindScheduler();
+                }
+            };
+
+    /**
+     * The bindings waiting for the next frame, in the order they requested a rebind.
+     */
+    private ArrayList<ViewDataBinding> mPending = new ArrayList<ViewDataBinding>();
+
+    /**
+     * The list swapped with mPending at each frame, kept to avoid allocations.
+     */
+    private ArrayList<ViewDataBinding> mRunning = new ArrayList<ViewDataBinding>();
+
+    /**
+     * Flag indicates that a frame callback has been posted for mPending.
+     */
+    private boolean mFramePosted;
+
+    private int[] mDepths = new int[16];
+
+    // null api < 16
+    private final Choreographer mChoreographer;
+
+    private final Choreographer.FrameCallback mFrameCallback;
+
+    private final Handler mUIThreadHandler;
+
+    // null api >= 16
+    private final Runnable mFrameRunnable;
+
+    private RebindScheduler() {
+        mUIThreadHandler = new Handler(Looper.myLooper());
+        // Remove the listeners of collected bindings without waiting for a rebind, so that
+        // they are not notified by long lived observables.
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                ViewDataBinding.processReferenceQueue();
+                return true;
+            }
+        });
+        if (USE_CHOREOGRAPHER) {
+            mChoreographer = Choreographer.getInstance();
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    rebindPending();
+                }
+            };
+            mFrameRunnable = null;
+        } else {
+            mChoreographer = null;
+            mFrameCallback = null;
+            mFrameRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    rebindPending();
+                }
+            };
+        }
+    }
+
+    /**
+     * Returns the scheduler for the calling thread, which must have a Looper.
+     */
+    static RebindScheduler getInstance() {
+        return sScheduler.get();
+    }
+
+    /**
+     * Sets how long bindings may spend rebinding in one frame before the rebinds of
+     * {@link #PRIORITY_LOW} bindings are delayed to the next frame. The default is 8ms.
+     *
+     * @param budgetMillis The time budget, in milliseconds.
+     */
+    public static void setFrameTimeBudget(long budgetMillis) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("The frame time budget must not be negative");
+        }
+        sFrameTimeBudgetNanos = budgetMillis * 1000000L;
+    }
+
+    /**
+     * @return The time, in milliseconds, that bindings may spend rebinding in one frame before
+     * the rebinds of {@link #PRIORITY_LOW} bindings are delayed to the next frame.
+     */
+    public static long getFrameTimeBudget() {
+        return sFrameTimeBudgetNanos / 1000000L;
+    }
+
+    /**
+     * Rebinds <code>binding</code> in the next frame. The binding must not already be
+     * scheduled.
+     */
+    void schedule(ViewDataBinding binding) {
+        synchronized (this) {
+            mPending.add(binding);
+            if (mFramePosted) {
+                return;
+            }
+            mFramePosted = true;
+        }
+        postFrame();
+    }
+
+    /**
+     * @return true if the calling thread is the thread of this scheduler.
+     */
+    boolean isCurrentThread() {
+        return mUIThreadHandler.getLooper() == Looper.myLooper();
+    }
+
+    /**
+     * Runs <code>runnable</code> on the thread of this scheduler.
+     */
+    void post(Runnable runnable) {
+        mUIThreadHandler.post(runnable);
+    }
+
+    private void postFrame() {
+        if (USE_CHOREOGRAPHER) {
+            mChoreographer.postFrameCallback(mFrameCallback);
+        } else {
+            mUIThreadHandler.post(mFrameRunnable);
+        }
+    }
+
+    private void rebindPending() {
+        final ArrayList<ViewDataBinding> running;
+        synchronized (this) {
+            running = mPending;
+            mPending = mRunning;
+            mRunning = running;
+            mFramePosted = false;
+        }
+        final int count = running.size();
+        sortByDepth(running);
+        final long budget = sFrameTimeBudgetNanos;
+        final long start = System.nanoTime();
+        boolean postponed = false;
+        boolean rebound = false;
+        for (int i = 0; i < count; i++) {
+            final ViewDataBinding binding = running.get(i);
+            // always rebind at least one binding per frame so that low priority ones progress
+            if (rebound && binding.getRebindPriority() == PRIORITY_LOW
+                    && System.nanoTime() - start > budget) {
+                synchronized (this) {
+                    mPending.add(binding);
+                    if (!mFramePosted) {
+                        mFramePosted = true;
+                        postponed = true;
+                    }
+                }
+            } else {
+                binding.rebindScheduled();
+                rebound = true;
+            }
+        }
+        running.clear();
+        if (postponed) {
+            postFrame();
+        }
+    }
+
+    /**
+     * Sorts the bindings so that those with roots higher in the View hierarchy come first.
+     * Bindings at the same depth keep the order in which they requested a rebind.
+     */
+    private void sortByDepth(ArrayList<ViewDataBinding> bindings) {
+        final int count = bindings.size();
+        if (count < 2) {
+            return;
+        }
+        if (mDepths.length < count) {
+            mDepths = new int[Math.max(count, mDepths.length * 2)];
+        }
+        final int[] depths = mDepths;
+        for (int i = 0; i < count; i++) {
+            depths[i] = getDepth(bindings.get(i).getRoot());
+        }
+        // insertion sort: stable and fast for the mostly ordered lists seen in practice
+        for (int i = 1; i < count; i++) {
+            final ViewDataBinding binding = bindings.get(i);
+            final int depth = depths[i];
+            int j = i - 1;
+            while (j >= 0 && depths[j] > depth) {
+                bindings.set(j + 1, bindings.get(j));
+                depths[j + 1] = depths[j];
+                j--;
+            }
+            bindings.set(j + 1, binding);
+            depths[j + 1] = depth;
+        }
+    }
+
+    private static int getDepth(View view) {
+        int depth = 0;
+        ViewParent parent = view.getParent();
+        while (parent != null) {
+            depth++;
+            parent = parent.getParent();
+        }
+        return depth;
+    }
+}
@@ -27,12 +27,12 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.OnLifecycleEvent;
+import android.content.pm.ApplicationInfo;
 import android.content.res.ColorStateList;
 import androidx.databinding.CallbackRegistry.NotifierCallback;
 import android.graphics.drawable.Drawable;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
-import android.os.Handler;
 import android.os.Looper;
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
@@ -43,7 +43,6 @@ import android.util.SparseArray;
 import android.util.SparseBooleanArray;
 import android.util.SparseIntArray;
 import android.util.SparseLongArray;
-import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.View.OnAttachStateChangeListener;
@@ -55,8 +54,12 @@ import androidx.databinding.library.R;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Base class for generated data binding classes. If possible, the generated binding should
@@ -87,8 +90,6 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
     // The length of BINDING_TAG_PREFIX prevents calling length repeatedly.
     private static final int BINDING_NUMBER_START = BINDING_TAG_PREFIX.length();
 
-    private static final boolean USE_CHOREOGRAPHER = SDK_INT >= 16;
-
     /**
      * Method object extracted out to attach a listener to a bound Observable object.
      */
@@ -134,6 +135,22 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         }
     };
 
+    /**
+     * Method object extracted out to attach a listener to a bound ObservableSparseCollection
+     * object.
+     */
+    private static final CreateWeakListener CREATE_KEY_LISTENER = new CreateWeakListener() {
+        @Override
+        public WeakListener create(
+                ViewDataBinding viewDataBinding,
+                int localFieldId,
+                ReferenceQueue<ViewDataBinding> referenceQueue
+        ) {
+            return new WeakKeyListener(viewDataBinding, localFieldId, referenceQueue)
+                    .getListener();
+        }
+    };
+
     /**
      * Method object extracted out to attach a listener to a bound LiveData object.
      */
@@ -172,6 +189,11 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
 
     private static final ReferenceQueue<ViewDataBinding> sReferenceQueue = new ReferenceQueue<>();
 
+    /**
+     * The number of listeners removed by processReferenceQueue.
+     */
+    private static final AtomicLong sReclaimedListenerCount = new AtomicLong();
+
     private static final OnAttachStateChangeListener ROOT_REATTACHED_LISTENER;
 
     static {
@@ -184,7 +206,7 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
                 public void onViewAttachedToWindow(View v) {
                     // execute the pending bindings.
                     final ViewDataBinding binding = getBinding(v);
-                    binding.mRebindRunnable.run();
+                    binding.rebind();
                     v.removeOnAttachStateChangeListener(this);
                 }
 
@@ -196,33 +218,41 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
     }
 
     /**
-     * Runnable executed on animation heartbeat to rebind the dirty Views.
+     * Flag indicates that there are pending bindings that need to be reevaluated.
      */
-    private final Runnable mRebindRunnable = new Runnable() {
-        @Override
-        public void run() {
-            synchronized (this) {
-                mPendingRebind = false;
-            }
-            processReferenceQueue();
-            if (VERSION.SDK_INT >= VERSION_CODES.KITKAT) {
-                // Nested so that we don't get a lint warning in IntelliJ
-                if (!mRoot.isAttachedToWindow()) {
-                    // Don't execute the pending bindings until the View
-                    // is attached again.
-                    mRoot.removeOnAttachStateChangeListener(ROOT_REATTACHED_LISTENER);
-                    mRoot.addOnAttachStateChangeListener(ROOT_REATTACHED_LISTENER);
-                    return;
-                }
-            }
-            executePendingBindings();
-        }
-    };
+    private boolean mPendingRebind = false;
 
     /**
-     * Flag indicates that there are pending bindings that need to be reevaluated.
+     * Flag indicates that this binding was generated to be used only from its main thread, so
+     * mPendingRebind and the dirty flags are not synchronized.
      */
-    private boolean mPendingRebind = false;
+    private boolean mMainThreadOnly;
+
+    /**
+     * Flag indicates that a main thread only binding checks the thread it is used from. Only
+     * set in debuggable apps.
+     */
+    private boolean mCheckThread;
+
+    /**
+     * The executor that evaluates binding expressions of scheduled rebinds, if any.
+     */
+    private static volatile Executor sEvaluationExecutor;
+
+    /**
+     * The background evaluation whose values have not been applied yet, if any.
+     */
+    private BackgroundEvaluation mEvaluation;
+
+    /**
+     * Flag indicates that a rebind was requested while mEvaluation was running.
+     */
+    private boolean mRebindAfterEvaluation;
+
+    /**
+     * Flag indicates that applyBindings is applying values evaluated in the background.
+     */
+    private boolean mApplyingEvaluation;
 
     /**
      * Indicates that a onPreBind has stopped the executePendingBindings call.
@@ -230,10 +260,15 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
     private boolean mRebindHalted = false;
 
     /**
-     * The observed expressions.
+     * The observed expressions. Allocated when the first one is registered.
      */
     private WeakListener[] mLocalFieldObservers;
 
+    /**
+     * The number of observed expressions, which is the size of mLocalFieldObservers.
+     */
+    private final int mLocalFieldCount;
+
     /**
      * The root View that this Binding is associated with.
      */
@@ -249,13 +284,15 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
      */
     private boolean mIsExecutingPendingBindings;
 
-    // null api < 16
-    private Choreographer mChoreographer;
-
-    private final Choreographer.FrameCallback mFrameCallback;
+    /**
+     * The scheduler of the thread that created this binding, which calls rebindScheduled.
+     */
+    private final RebindScheduler mRebindScheduler;
 
-    // null api >= 16
-    private Handler mUIThreadHandler;
+    /**
+     * The priority given to rebinds of this binding by mRebindScheduler.
+     */
+    private int mRebindPriority = RebindScheduler.PRIORITY_DEFAULT;
 
     /**
      * The DataBindingComponent used by this data binding. This is used for BindingAdapters
@@ -307,23 +344,12 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
      */
     protected ViewDataBinding(DataBindingComponent bindingComponent, View root, int localFieldCount) {
         mBindingComponent = bindingComponent;
-        mLocalFieldObservers = new WeakListener[localFieldCount];
+        mLocalFieldCount = localFieldCount;
         this.mRoot = root;
         if (Looper.myLooper() == null) {
             throw new IllegalStateException("DataBinding must be created in view's UI Thread");
         }
-        if (USE_CHOREOGRAPHER) {
-            mChoreographer = Choreographer.getInstance();
-            mFrameCallback = new Choreographer.FrameCallback() {
-                @Override
-                public void doFrame(long frameTimeNanos) {
-                    mRebindRunnable.run();
-                }
-            };
-        } else {
-            mFrameCallback = null;
-            mUIThreadHandler = new Handler(Looper.myLooper());
-        }
+        mRebindScheduler = RebindScheduler.getInstance();
     }
 
     /**
@@ -346,6 +372,31 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         return (DataBindingComponent) bindingComponent;
     }
 
+    /**
+     * Marks this binding as used only from the thread it was created on. Generated bindings of
+     * modules compiled with main thread only bindings call this from their constructor.
+     *
+     * @hide
+     */
+    protected void setMainThreadOnly() {
+        mMainThreadOnly = true;
+        mCheckThread = (mRoot.getContext().getApplicationInfo().flags
+                & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    /**
+     * Throws an IllegalStateException if this is a main thread only binding of a debuggable app
+     * and it is used from another thread.
+     *
+     * @hide
+     */
+    protected void checkMainThread() {
+        if (mCheckThread && !mRebindScheduler.isCurrentThread()) {
+            throw new IllegalStateException("Main thread only binding " + getClass().getName()
+                    + " used from thread " + Thread.currentThread().getName());
+        }
+    }
+
     /**
      * @hide
      */
@@ -382,6 +433,21 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
      */
     protected abstract boolean onFieldChange(int localFieldId, Object object, int fieldId);
 
+    /**
+     * Returns the BR ids of the properties that {@link #onFieldChange(int, Object, int)} reacts
+     * to for an observed {@link Observable}, in addition to <code>BR._all</code>. The listener
+     * registered for that field uses them so that it is only notified about those properties.
+     *
+     * @param localFieldId The index into mLocalFieldObservers of the observed Observable.
+     * @return The BR ids that can make the field dirty or null if the listener should be
+     * notified about every property.
+     * @hide
+     */
+    @Nullable
+    protected int[] getObservedPropertyIds(int localFieldId) {
+        return null;
+    }
+
     /**
      * Set a value value in the Binding class.
      * <p>
@@ -433,9 +499,11 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
             }
             lifecycleOwner.getLifecycle().addObserver(mOnStartListener);
         }
-        for (WeakListener<?> weakListener : mLocalFieldObservers) {
-            if (weakListener != null) {
-                weakListener.setLifecycleOwner(lifecycleOwner);
+        if (mLocalFieldObservers != null) {
+            for (WeakListener<?> weakListener : mLocalFieldObservers) {
+                if (weakListener != null) {
+                    weakListener.setLifecycleOwner(lifecycleOwner);
+                }
             }
         }
     }
@@ -478,8 +546,14 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
     /**
      * Evaluates the pending bindings, updating any Views that have expressions bound to
      * modified variables. This <b>must</b> be run on the UI thread.
+     * <p>
+     * If the expressions of a scheduled rebind are being evaluated on the
+     * {@link #setEvaluationExecutor(Executor) evaluation executor}, this blocks until the
+     * evaluation finishes so that its values are applied first. An evaluation that has not
+     * started yet is canceled instead.
      */
     public void executePendingBindings() {
+        checkMainThread();
         if (mContainingBinding == null) {
             executeBindingsInternal();
         } else {
@@ -495,6 +569,11 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
             requestRebind();
             return;
         }
+        if (mEvaluation != null) {
+            // The background evaluation consumed some of the dirty flags, so its values must
+            // be applied before the remaining changes are.
+            finishEvaluation();
+        }
         if (!hasPendingBindings()) {
             return;
         }
@@ -517,6 +596,289 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         mIsExecutingPendingBindings = false;
     }
 
+    /**
+     * Executes the bindings for a scheduled rebind. When an evaluation executor is set and the
+     * binding supports it, expressions are evaluated on the executor and applied to the Views
+     * on this thread afterwards.
+     */
+    private void executeScheduledBindings() {
+        final Executor executor = sEvaluationExecutor;
+        if (executor == null || mContainingBinding != null || !supportsBackgroundEvaluation()) {
+            executePendingBindings();
+            return;
+        }
+        if (mEvaluation != null) {
+            mRebindAfterEvaluation = true;
+            return;
+        }
+        if (mIsExecutingPendingBindings) {
+            requestRebind();
+            return;
+        }
+        if (!hasPendingBindings()) {
+            return;
+        }
+        mRebindHalted = false;
+        if (mRebindCallbacks != null) {
+            mRebindCallbacks.notifyCallbacks(this, REBIND, null);
+
+            // The onRebindListeners will change mPendingHalted
+            if (mRebindHalted) {
+                mRebindCallbacks.notifyCallbacks(this, HALTED, null);
+                return;
+            }
+        }
+        mEvaluation = new BackgroundEvaluation();
+        try {
+            executor.execute(mEvaluation);
+        } catch (RejectedExecutionException e) {
+            mEvaluation = null;
+            executePendingBindings();
+        }
+    }
+
+    /**
+     * Called on the thread of this binding when a background evaluation has finished.
+     */
+    private void onEvaluationFinished(BackgroundEvaluation evaluation) {
+        if (mEvaluation != evaluation) {
+            // executePendingBindings() or resetForReuse() already took care of it.
+            return;
+        }
+        mEvaluation = null;
+        applyEvaluation(evaluation);
+        if (mRebindAfterEvaluation) {
+            mRebindAfterEvaluation = false;
+            requestRebind();
+        }
+    }
+
+    /**
+     * Cancels mEvaluation if it has not started yet, or waits for it and applies its values.
+     * Either way, the dirty flags reflect every change that has not been applied afterwards.
+     */
+    private void finishEvaluation() {
+        final BackgroundEvaluation evaluation = mEvaluation;
+        mEvaluation = null;
+        mRebindAfterEvaluation = false;
+        if (evaluation.cancelOrJoin()) {
+            applyEvaluation(evaluation);
+        }
+    }
+
+    private void applyEvaluation(BackgroundEvaluation evaluation) {
+        evaluation.rethrowFailure();
+        mIsExecutingPendingBindings = true;
+        mApplyingEvaluation = true;
+        try {
+            applyBindings(evaluation.mValues);
+        } finally {
+            mApplyingEvaluation = false;
+            mIsExecutingPendingBindings = false;
+        }
+        if (mRebindCallbacks != null) {
+            mRebindCallbacks.notifyCallbacks(this, REBOUND, null);
+        }
+    }
+
+    /**
+     * Sets the executor used to evaluate binding expressions before scheduled rebinds. Only
+     * bindings generated with two-phase bindings enabled use it; their View setters still
+     * run on the thread that created the binding. Pass null to evaluate on that thread.
+     * <p>
+     * Explicit calls to {@link #executePendingBindings()} always evaluate synchronously.
+     *
+     * @param executor The executor that evaluates binding expressions or null.
+     */
+    public static void setEvaluationExecutor(@Nullable Executor executor) {
+        sEvaluationExecutor = executor;
+    }
+
+    /**
+     * Returns whether this binding implements {@link #evaluateBindings()} and
+     * {@link #applyBindings(Object)}.
+     *
+     * @hide
+     */
+    protected boolean supportsBackgroundEvaluation() {
+        return false;
+    }
+
+    /**
+     * Reads the dirty flags and evaluates the binding expressions without touching the Views.
+     * May run on a background thread. Only called when {@link #supportsBackgroundEvaluation()}
+     * returns true; by default, the evaluation is left to {@link #applyBindings(Object)}.
+     *
+     * @return The evaluated values, to be passed to {@link #applyBindings(Object)}.
+     * @hide
+     */
+    protected Object evaluateBindings() {
+        return null;
+    }
+
+    /**
+     * Registers observers and sets the values returned by {@link #evaluateBindings()} on the
+     * Views. By default, it executes the bindings.
+     *
+     * @hide
+     */
+    protected void applyBindings(Object values) {
+        executeBindings();
+    }
+
+    /**
+     * Returns whether applyBindings is applying values that were evaluated in the background.
+     * The objects applyBindings starts observing then may have changed before they were
+     * observed.
+     *
+     * @hide
+     */
+    protected boolean isApplyingEvaluation() {
+        return mApplyingEvaluation;
+    }
+
+    /**
+     * Called when an object that applyBindings starts observing changed between the background
+     * evaluation and the registration. The object is treated as changed. May be called from the
+     * evaluation executor.
+     *
+     * @hide
+     */
+    protected void handleRegistrationAfterEvaluation(int localFieldId, Object observable) {
+        if (observable != null) {
+            handleFieldChange(localFieldId, observable, 0);
+        }
+    }
+
+    /**
+     * Called by applyBindings after it started observing objects whose values read by
+     * {@link #evaluateBindings()} may have changed before the registration. Calls
+     * {@link #checkEvaluatedValues(Object)} on the evaluation executor, so that the getters are
+     * not called again on this thread.
+     *
+     * @hide
+     */
+    protected void scheduleEvaluationCheck(final Object values) {
+        final Runnable check = new Runnable() {
+            @Override
+            public void run() {
+                checkEvaluatedValues(values);
+            }
+        };
+        final Executor executor = sEvaluationExecutor;
+        if (executor != null) {
+            try {
+                executor.execute(check);
+                return;
+            } catch (RejectedExecutionException e) {
+                // check on this thread
+            }
+        }
+        check.run();
+    }
+
+    /**
+     * Compares the values read by {@link #evaluateBindings()} with the current values of the
+     * objects that applyBindings started observing and calls
+     * {@link #handleRegistrationAfterEvaluation(int, Object)} for those that changed.
+     *
+     * @hide
+     */
+    protected void checkEvaluatedValues(Object values) {
+    }
+
+    /**
+     * Returns whether a value read in the background differs from its current value.
+     *
+     * @hide
+     */
+    protected static boolean hasValueChanged(Object evaluated, Object current) {
+        return evaluated == null ? current != null : !evaluated.equals(current);
+    }
+
+    /**
+     * Evaluates the binding expressions on the evaluation executor, then applies them on the
+     * thread that created the binding.
+     */
+    private class BackgroundEvaluation implements Runnable {
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int FINISHED = 2;
+        private static final int CANCELED = 3;
+
+        private int mState = PENDING;
+
+        Object mValues;
+
+        private Throwable mFailure;
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (mState != PENDING) {
+                    return;
+                }
+                mState = RUNNING;
+            }
+            Object values = null;
+            Throwable failure = null;
+            try {
+                values = evaluateBindings();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            synchronized (this) {
+                mValues = values;
+                mFailure = failure;
+                mState = FINISHED;
+                notifyAll();
+            }
+            mRebindScheduler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onEvaluationFinished(BackgroundEvaluation.this);
+                }
+            });
+        }
+
+        /**
+         * Cancels the evaluation if it has not started yet or waits for it to finish.
+         *
+         * @return true if the evaluation has finished and its values must be applied.
+         */
+        synchronized boolean cancelOrJoin() {
+            if (mState == PENDING) {
+                mState = CANCELED;
+                return false;
+            }
+            boolean interrupted = false;
+            while (mState == RUNNING) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return mState == FINISHED;
+        }
+
+        /**
+         * Throws what the evaluation threw on the thread of the binding.
+         */
+        void rethrowFailure() {
+            if (mFailure instanceof RuntimeException) {
+                throw (RuntimeException) mFailure;
+            } else if (mFailure instanceof Error) {
+                throw (Error) mFailure;
+            } else if (mFailure != null) {
+                throw new RuntimeException(mFailure);
+            }
+        }
+    }
+
     /**
      * Calls executeBindingsInternal on the other ViewDataBinding
      *
@@ -552,6 +914,9 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
      * Removes binding listeners to expression variables.
      */
     public void unbind() {
+        if (mLocalFieldObservers == null) {
+            return;
+        }
         for (WeakListener weakListener : mLocalFieldObservers) {
             if (weakListener != null) {
                 weakListener.unregister();
@@ -559,6 +924,23 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         }
     }
 
+    /**
+     * Prepares this binding to be bound to other data, as when it is returned to a
+     * {@link BindingPool}. The binding stops observing its variables, the variables are cleared
+     * and all expressions are marked dirty without requesting a rebind. The Views keep their
+     * values until the binding is rebound.
+     */
+    public void resetForReuse() {
+        unbind();
+        if (mEvaluation != null) {
+            // Drop the values of the background evaluation, but make sure it is done with the
+            // dirty flags before they are reset.
+            mEvaluation.cancelOrJoin();
+            mEvaluation = null;
+            mRebindAfterEvaluation = false;
+        }
+    }
+
     static ViewDataBinding getBinding(View v) {
         if (v != null) {
             return (ViewDataBinding) v.getTag(R.id.dataBinding);
@@ -592,11 +974,81 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         }
     }
 
+    /**
+     * Called when the value of <code>key</code> changes in an observed ObservableMap.
+     * Bindings that read the map only with constant keys override this to invalidate only the
+     * expressions reading <code>key</code>.
+     *
+     * @param key The key whose value changed or null if any key may have changed.
+     * @return true if the change invalidated any expression.
+     * @hide
+     */
+    protected boolean onMapKeyChange(int localFieldId, Object map, Object key) {
+        return onFieldChange(localFieldId, map, 0);
+    }
+
+    private void handleMapKeyChange(int localFieldId, Object map, Object key) {
+        if (mInLiveDataRegisterObserver || mInStateFlowRegisterObserver) {
+            return;
+        }
+        if (onMapKeyChange(localFieldId, map, key)) {
+            requestRebind();
+        }
+    }
+
+    /**
+     * Called when the value of <code>key</code> changes in an observed
+     * ObservableSparseCollection. Bindings that read the collection only with constant keys
+     * override this to invalidate only the expressions reading <code>key</code>.
+     *
+     * @param key The key whose value changed.
+     * @return true if the change invalidated any expression.
+     * @hide
+     */
+    protected boolean onSparseKeyChange(int localFieldId, Object collection, long key) {
+        return onFieldChange(localFieldId, collection, 0);
+    }
+
+    private void handleSparseKeyChange(int localFieldId, Object collection, long key) {
+        if (mInLiveDataRegisterObserver || mInStateFlowRegisterObserver) {
+            return;
+        }
+        if (onSparseKeyChange(localFieldId, collection, key)) {
+            requestRebind();
+        }
+    }
+
+    /**
+     * Called when the items from <code>start</code> up to, but excluding, <code>end</code>
+     * change in an observed ObservableList. Bindings that read the list with constant indices
+     * override this to invalidate only the expressions that may read a changed item.
+     *
+     * @param end The end of the changed range, {@link Integer#MAX_VALUE} if all the items from
+     *            <code>start</code> on moved.
+     * @param sizeChanged Whether items were inserted or removed.
+     * @return true if the change invalidated any expression.
+     * @hide
+     */
+    protected boolean onListRangeChange(int localFieldId, Object list, int start, int end,
+            boolean sizeChanged) {
+        return onFieldChange(localFieldId, list, 0);
+    }
+
+    private void handleListRangeChange(int localFieldId, Object list, int start, int end,
+            boolean sizeChanged) {
+        if (mInLiveDataRegisterObserver || mInStateFlowRegisterObserver) {
+            return;
+        }
+        if (onListRangeChange(localFieldId, list, start, end, sizeChanged)) {
+            requestRebind();
+        }
+    }
+
     /**
      * @hide
      */
     protected boolean unregisterFrom(int localFieldId) {
-        WeakListener listener = mLocalFieldObservers[localFieldId];
+        WeakListener listener = getLocalFieldObserver(localFieldId);
         if (listener != null) {
             return listener.unregister();
         }
@@ -617,25 +1069,84 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
                     return; // wait until lifecycle owner is started
                 }
             }
-            synchronized (this) {
+            if (mMainThreadOnly) {
+                checkMainThread();
                 if (mPendingRebind) {
                     return;
                 }
                 mPendingRebind = true;
-            }
-            if (USE_CHOREOGRAPHER) {
-                mChoreographer.postFrameCallback(mFrameCallback);
             } else {
-                mUIThreadHandler.post(mRebindRunnable);
+                synchronized (this) {
+                    if (mPendingRebind) {
+                        return;
+                    }
+                    mPendingRebind = true;
+                }
+            }
+            mRebindScheduler.schedule(this);
+        }
+    }
+
+    /**
+     * Called by mRebindScheduler in the frame following {@link #requestRebind()}.
+     */
+    void rebindScheduled() {
+        rebind();
+    }
+
+    /**
+     * Rebinds the dirty Views, or waits until the root View is attached again if it is
+     * detached.
+     */
+    private void rebind() {
+        if (mMainThreadOnly) {
+            mPendingRebind = false;
+        } else {
+            synchronized (this) {
+                mPendingRebind = false;
+            }
+        }
+        processReferenceQueue();
+        if (VERSION.SDK_INT >= VERSION_CODES.KITKAT) {
+            // Nested so that we don't get a lint warning in IntelliJ
+            if (!mRoot.isAttachedToWindow()) {
+                // Don't execute the pending bindings until the View
+                // is attached again.
+                mRoot.removeOnAttachStateChangeListener(ROOT_REATTACHED_LISTENER);
+                mRoot.addOnAttachStateChangeListener(ROOT_REATTACHED_LISTENER);
+                return;
             }
         }
+        executeScheduledBindings();
+    }
+
+    /**
+     * Sets the priority of the rebinds of this binding. Rebinds of bindings with
+     * {@link RebindScheduler#PRIORITY_LOW} may be delayed to a later frame when the rebinds
+     * in a frame take longer than {@link RebindScheduler#getFrameTimeBudget()}.
+     * <p>
+     * The priority of an included binding is the priority of the binding that includes it.
+     *
+     * @param priority {@link RebindScheduler#PRIORITY_DEFAULT} or
+     *                 {@link RebindScheduler#PRIORITY_LOW}.
+     */
+    public void setRebindPriority(int priority) {
+        mRebindPriority = priority;
+    }
+
+    /**
+     * @return The priority of the rebinds of this binding.
+     * @see #setRebindPriority(int)
+     */
+    public int getRebindPriority() {
+        return mRebindPriority;
     }
 
     /**
      * @hide
      */
     protected Object getObservedField(int localFieldId) {
-        WeakListener listener = mLocalFieldObservers[localFieldId];
+        WeakListener listener = getLocalFieldObserver(localFieldId);
         if (listener == null) {
             return null;
         }
@@ -648,7 +1159,7 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         if (observable == null) {
             return unregisterFrom(localFieldId);
         }
-        WeakListener listener = mLocalFieldObservers[localFieldId];
+        WeakListener listener = getLocalFieldObserver(localFieldId);
         if (listener == null) {
             registerTo(localFieldId, observable, listenerCreator);
             return true;
@@ -682,6 +1193,14 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         return updateRegistration(localFieldId, observable, CREATE_MAP_LISTENER);
     }
 
+    /**
+     * @hide
+     */
+    protected boolean updateRegistration(int localFieldId,
+            ObservableSparseCollection observable) {
+        return updateRegistration(localFieldId, observable, CREATE_KEY_LISTENER);
+    }
+
     /**
      * @hide
      */
@@ -710,6 +1229,11 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         }
     }
 
+    private WeakListener getLocalFieldObserver(int localFieldId) {
+        final WeakListener[] observers = mLocalFieldObservers;
+        return observers == null ? null : observers[localFieldId];
+    }
+
     /**
      * @hide
      */
@@ -718,8 +1242,16 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         if (observable == null) {
             return;
         }
+        if (mLocalFieldObservers == null) {
+            mLocalFieldObservers = new WeakListener[mLocalFieldCount];
+        }
         WeakListener listener = mLocalFieldObservers[localFieldId];
         if (listener == null) {
+            // the idle handler only drains the queue when the thread becomes idle. Listeners
+            // such as those of LiveData must be removed on the main thread.
+            if (mRebindScheduler.isCurrentThread()) {
+                processReferenceQueue();
+            }
             listener = listenerCreator.create(this, localFieldId, sReferenceQueue);
             mLocalFieldObservers[localFieldId] = listener;
             if (mLifecycleOwner != null) {
@@ -761,6 +1293,37 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         return bindings;
     }
 
+    /**
+     * Finds the bound and ID'd views under root using the child index paths computed when the
+     * layout was compiled. This avoids reading and parsing the tags of every View in the
+     * hierarchy. When the inflated hierarchy does not match the paths, for example because a
+     * custom LayoutInflater changed it, the hierarchy is walked as in
+     * {@link #mapBindings(DataBindingComponent, View, int, IncludedLayouts, SparseIntArray)}.
+     *
+     * @param bindingComponent The binding component to use with this binding.
+     * @param root The root of the view hierarchy.
+     * @param numBindings The total number of ID'd views, views with expressions, and includes
+     * @param includes The include layout information, indexed by their container's index.
+     * @param viewsWithIds Indexes of views that don't have tags, but have IDs.
+     * @param viewPaths The child indices leading from root to each View, by binding index.
+     * @return An array of size numBindings containing all Views in the hierarchy that have IDs
+     * (with elements in viewsWithIds), are tagged containing expressions, or the bindings for
+     * included layouts.
+     * @hide
+     */
+    protected static Object[] mapBindings(DataBindingComponent bindingComponent, View root,
+            int numBindings, IncludedLayouts includes, SparseIntArray viewsWithIds,
+            int[][] viewPaths) {
+        Object[] bindings = new Object[numBindings];
+        if (getBinding(root) == null
+                && mapBindingsByPath(root, null, bindings, viewsWithIds, viewPaths)) {
+            return bindings;
+        }
+        Arrays.fill(bindings, null);
+        mapBindings(bindingComponent, root, bindings, includes, viewsWithIds, true);
+        return bindings;
+    }
+
     /** @hide */
     protected static boolean parse(String str, boolean fallback) {
         if (str == null) {
@@ -1119,6 +1682,78 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         list.put(index, value);
     }
 
+    /** @hide */
+    protected static int getFromList(ObservableIntArrayList list, int index) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return 0;
+        }
+        return list.getInt(index);
+    }
+
+    /** @hide */
+    protected static void setTo(ObservableIntArrayList list, int index, int value) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return;
+        }
+        list.setInt(index, value);
+    }
+
+    /** @hide */
+    protected static long getFromList(ObservableLongArrayList list, int index) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return 0;
+        }
+        return list.getLong(index);
+    }
+
+    /** @hide */
+    protected static void setTo(ObservableLongArrayList list, int index, long value) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return;
+        }
+        list.setLong(index, value);
+    }
+
+    /** @hide */
+    protected static float getFromList(ObservableFloatArrayList list, int index) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return 0;
+        }
+        return list.getFloat(index);
+    }
+
+    /** @hide */
+    protected static void setTo(ObservableFloatArrayList list, int index, float value) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return;
+        }
+        list.setFloat(index, value);
+    }
+
+    /** @hide */
+    protected static <T> void setTo(ObservableSparseArray<T> values, int key, T value) {
+        if (values == null) {
+            return;
+        }
+        values.put(key, value);
+    }
+
+    /** @hide */
+    protected static <T> void setTo(ObservableLongSparseArray<T> values, long key, T value) {
+        if (values == null) {
+            return;
+        }
+        values.put(key, value);
+    }
+
+    /** @hide */
+    protected static void setTo(ObservableIntIntMap values, int key, int value) {
+        if (values == null) {
+            return;
+        }
+        values.put(key, value);
+    }
+
     /** @hide */
     protected static <K, T> T getFrom(Map<K, T> map, K key) {
         if (map == null) {
@@ -1224,6 +1859,109 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         return bindings;
     }
 
+    /**
+     * Finds the bound and ID'd views under roots using the child index paths computed when the
+     * layout was compiled, falling back to walking the hierarchy when it does not match.
+     *
+     * @param bindingComponent The binding component to use with this binding.
+     * @param roots The root Views of the view hierarchy. This is used with merge tags.
+     * @param numBindings The total number of ID'd views, views with expressions, and includes
+     * @param includes The include layout information, indexed by their container's index.
+     * @param viewsWithIds Indexes of views that don't have tags, but have IDs.
+     * @param viewPaths The child indices leading to each View, by binding index. The first index
+     * selects the View in roots.
+     * @return An array of size numBindings containing all Views in the hierarchy that have IDs
+     * (with elements in viewsWithIds), are tagged containing expressions, or the bindings for
+     * included layouts.
+     * @hide
+     */
+    protected static Object[] mapBindings(DataBindingComponent bindingComponent, View[] roots,
+            int numBindings, IncludedLayouts includes, SparseIntArray viewsWithIds,
+            int[][] viewPaths) {
+        Object[] bindings = new Object[numBindings];
+        if (mapBindingsByPath(null, roots, bindings, viewsWithIds, viewPaths)) {
+            return bindings;
+        }
+        Arrays.fill(bindings, null);
+        for (int i = 0; i < roots.length; i++) {
+            mapBindings(bindingComponent, roots[i], bindings, includes, viewsWithIds, true);
+        }
+        return bindings;
+    }
+
+    /**
+     * Descends from root, or from the View in roots selected by the first index, along each
+     * path in viewPaths and stores the View found in bindings. Each View found must have the
+     * tag or ID that {@link #mapBindings(DataBindingComponent, View, Object[],
+     * IncludedLayouts, SparseIntArray, boolean)} would bind to its index.
+     *
+     * @return false if the hierarchy does not match viewPaths.
+     */
+    private static boolean mapBindingsByPath(View root, View[] roots, Object[] bindings,
+            SparseIntArray viewsWithIds, int[][] viewPaths) {
+        if (viewPaths.length != bindings.length) {
+            return false;
+        }
+        for (int i = 0; i < viewPaths.length; i++) {
+            final int[] path = viewPaths[i];
+            if (path == null) {
+                continue;
+            }
+            View view;
+            int depth;
+            if (roots == null) {
+                view = root;
+                depth = 0;
+            } else {
+                if (path.length == 0 || path[0] >= roots.length) {
+                    return false;
+                }
+                view = roots[path[0]];
+                depth = 1;
+            }
+            final boolean isRoot = depth == path.length;
+            for (; depth < path.length; depth++) {
+                if (!(view instanceof ViewGroup)) {
+                    return false;
+                }
+                final ViewGroup viewGroup = (ViewGroup) view;
+                if (path[depth] >= viewGroup.getChildCount()) {
+                    return false;
+                }
+                view = viewGroup.getChildAt(path[depth]);
+            }
+            if (!isBindingTarget(view, i, isRoot, viewsWithIds)) {
+                return false;
+            }
+            bindings[i] = view;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether mapBindings would bind view to index: the tag of a root must end with
+     * index, other Views must be tagged <code>binding_index</code>, and Views without such a
+     * tag must have an ID that viewsWithIds maps to index.
+     */
+    private static boolean isBindingTarget(View view, int index, boolean isRoot,
+            SparseIntArray viewsWithIds) {
+        final Object objTag = view.getTag();
+        if (objTag instanceof String) {
+            final String tag = (String) objTag;
+            if (isRoot && tag.startsWith("layout")) {
+                final int underscoreIndex = tag.lastIndexOf('_');
+                if (underscoreIndex > 0 && isNumeric(tag, underscoreIndex + 1)) {
+                    return parseTagInt(tag, underscoreIndex + 1) == index;
+                }
+            } else if (tag.startsWith(BINDING_TAG_PREFIX)) {
+                return isNumeric(tag, BINDING_NUMBER_START)
+                        && parseTagInt(tag, BINDING_NUMBER_START) == index;
+            }
+        }
+        return viewsWithIds != null && view.getId() > 0
+                && viewsWithIds.get(view.getId(), -1) == index;
+    }
+
     private static void mapBindings(DataBindingComponent bindingComponent, View view,
             Object[] bindings, IncludedLayouts includes, SparseIntArray viewsWithIds,
             boolean isRoot) {
@@ -1384,17 +2122,35 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
 
     /**
      * Polls sReferenceQueue to remove listeners on ViewDataBindings that have been collected.
+     * This runs before every rebind, before a new listener is registered and whenever the
+     * thread of a {@link RebindScheduler} becomes idle. A listener collected while the thread
+     * is already idle is only removed once one of these happens, but until then it ignores
+     * the changes of its observable.
      */
-    private static void processReferenceQueue() {
+    static void processReferenceQueue() {
         Reference<? extends ViewDataBinding> ref;
         while ((ref = sReferenceQueue.poll()) != null) {
             if (ref instanceof WeakListener) {
                 WeakListener listener = (WeakListener) ref;
-                listener.unregister();
+                if (listener.unregister()) {
+                    sReclaimedListenerCount.incrementAndGet();
+                }
             }
         }
     }
 
+    /**
+     * Returns the number of listeners that were removed from their observables because the
+     * binding that registered them was garbage collected. The count starts when the process
+     * starts. It may be useful to see whether bindings are leaked or dropped without
+     * {@link #unbind()}.
+     *
+     * @return The number of listeners of collected bindings removed so far.
+     */
+    public static long getReclaimedListenerCount() {
+        return sReclaimedListenerCount.get();
+    }
+
     /**
      * Pass through inflate method for generated code that receives bindingComponent as an object.
      * <p>
@@ -1416,8 +2172,10 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
     }
 
     private static class WeakPropertyListener extends Observable.OnPropertyChangedCallback
-            implements ObservableReference<Observable> {
+            implements ObservableReference<Observable>, PropertyChangeRegistry.PropertyFilter {
         final WeakListener<Observable> mListener;
+        @Nullable
+        final int[] mObservedPropertyIds;
 
         public WeakPropertyListener(
                 ViewDataBinding binder,
@@ -1425,6 +2183,13 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
                 ReferenceQueue<ViewDataBinding> referenceQueue
         ) {
             mListener = new WeakListener<Observable>(binder, localFieldId, this, referenceQueue);
+            mObservedPropertyIds = binder.getObservedPropertyIds(localFieldId);
+        }
+
+        @Nullable
+        @Override
+        public int[] getObservedPropertyIds() {
+            return mObservedPropertyIds;
         }
 
         @Override
@@ -1508,23 +2273,35 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
 
         @Override
         public void onItemRangeChanged(ObservableList sender, int positionStart, int itemCount) {
-            onChanged(sender);
+            onRangeChanged(sender, positionStart, positionStart + itemCount, false);
         }
 
         @Override
         public void onItemRangeInserted(ObservableList sender, int positionStart, int itemCount) {
-            onChanged(sender);
+            // all the items after the inserted ones move
+            onRangeChanged(sender, positionStart, Integer.MAX_VALUE, true);
         }
 
         @Override
         public void onItemRangeMoved(ObservableList sender, int fromPosition, int toPosition,
                 int itemCount) {
-            onChanged(sender);
+            onRangeChanged(sender, Math.min(fromPosition, toPosition),
+                    Math.max(fromPosition, toPosition) + itemCount, false);
         }
 
         @Override
         public void onItemRangeRemoved(ObservableList sender, int positionStart, int itemCount) {
-            onChanged(sender);
+            onRangeChanged(sender, positionStart, Integer.MAX_VALUE, true);
+        }
+
+        private void onRangeChanged(ObservableList sender, int start, int end,
+                boolean sizeChanged) {
+            ViewDataBinding binder = mListener.getBinder();
+            if (binder == null || sender != mListener.getTarget()) {
+                return;
+            }
+            binder.handleListRangeChange(mListener.mLocalFieldId, sender, start, end,
+                    sizeChanged);
         }
     }
 
@@ -1563,6 +2340,59 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
 
         @Override
         public void onMapChanged(ObservableMap sender, Object key) {
+            ViewDataBinding binder = mListener.getBinder();
+            if (binder == null || sender != mListener.getTarget()) {
+                return;
+            }
+            binder.handleMapKeyChange(mListener.mLocalFieldId, sender, key);
+        }
+    }
+
+    private static class WeakKeyListener
+            extends ObservableSparseCollection.OnKeyChangedCallback
+            implements ObservableReference<ObservableSparseCollection> {
+        final WeakListener<ObservableSparseCollection> mListener;
+
+        public WeakKeyListener(
+                ViewDataBinding binder,
+                int localFieldId,
+                ReferenceQueue<ViewDataBinding> referenceQueue
+        ) {
+            mListener = new WeakListener<ObservableSparseCollection>(
+                    binder, localFieldId, this, referenceQueue
+            );
+        }
+
+        @Override
+        public void setLifecycleOwner(LifecycleOwner lifecycleOwner) {
+        }
+
+        @Override
+        public WeakListener<ObservableSparseCollection> getListener() {
+            return mListener;
+        }
+
+        @Override
+        public void addListener(ObservableSparseCollection target) {
+            target.addOnKeyChangedCallback(this);
+        }
+
+        @Override
+        public void removeListener(ObservableSparseCollection target) {
+            target.removeOnKeyChangedCallback(this);
+        }
+
+        @Override
+        public void onKeyChanged(ObservableSparseCollection sender, long key) {
+            ViewDataBinding binder = mListener.getBinder();
+            if (binder == null || sender != mListener.getTarget()) {
+                return;
+            }
+            binder.handleSparseKeyChange(mListener.mLocalFieldId, sender, key);
+        }
+
+        @Override
+        public void onChanged(ObservableSparseCollection sender) {
             ViewDataBinding binder = mListener.getBinder();
             if (binder == null || sender != mListener.getTarget()) {
                 return;
@@ -1571,9 +2401,12 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         }
     }
 
-    private static class LiveDataListener implements Observer,
+    /**
+     * Observes a LiveData. Unlike the other listeners, LiveData observers are interfaces, so
+     * this is the WeakListener itself rather than a second object holding one.
+     */
+    private static class LiveDataListener extends WeakListener<LiveData<?>> implements Observer,
             ObservableReference<LiveData<?>> {
-        final WeakListener<LiveData<?>> mListener;
         // keep this weak because listeners might leak, we don't want to leak the owner
         // see: b/176886060
         @Nullable
@@ -1584,7 +2417,7 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
                 int localFieldId,
                 ReferenceQueue<ViewDataBinding> referenceQueue
         ) {
-            mListener = new WeakListener(binder, localFieldId, this, referenceQueue);
+            super(binder, localFieldId, referenceQueue);
         }
 
         @Nullable
@@ -1600,7 +2433,7 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
         public void setLifecycleOwner(@Nullable LifecycleOwner lifecycleOwner) {
             LifecycleOwner previousOwner = getLifecycleOwner();
             LifecycleOwner newOwner = lifecycleOwner;
-            LiveData<?> liveData = mListener.getTarget();
+            LiveData<?> liveData = getTarget();
             if (liveData != null) {
                 if (previousOwner != null) {
                     liveData.removeObserver(this);
@@ -1616,7 +2449,7 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
 
         @Override
         public WeakListener<LiveData<?>> getListener() {
-            return mListener;
+            return this;
         }
 
         @Override
@@ -1634,9 +2467,9 @@ public abstract class ViewDataBinding extends BaseObservable implements ViewBind
 
         @Override
         public void onChanged(@Nullable Object o) {
-            ViewDataBinding binder = mListener.getBinder();
+            ViewDataBinding binder = getBinder();
             if (binder != null) {
-                binder.handleFieldChange(mListener.mLocalFieldId, mListener.getTarget(), 0);
+                binder.handleFieldChange(mLocalFieldId, getTarget(), 0);
             }
         }
     }
@@ -74,6 +74,21 @@ class WeakListener<T> extends WeakReference<ViewDataBinding> {
         mObservable = observable;
     }
 
+    /**
+     * Creates a listener that is also the ObservableReference it registers with, saving an
+     * object per observed field. The subclass must implement {@link ObservableReference}.
+     */
+    @SuppressWarnings("unchecked")
+    protected WeakListener(
+            ViewDataBinding binder,
+            int localFieldId,
+            ReferenceQueue<ViewDataBinding> referenceQueue
+    ) {
+        super(binder, referenceQueue);
+        mLocalFieldId = localFieldId;
+        mObservable = (ObservableReference<T>) this;
+    }
+
     public void setLifecycleOwner(LifecycleOwner lifecycleOwner) {
         mObservable.setLifecycleOwner(lifecycleOwner);
     }
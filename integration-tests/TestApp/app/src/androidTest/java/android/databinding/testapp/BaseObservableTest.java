@@ -94,4 +94,65 @@ public class BaseObservableTest extends BaseDataBinderTest<BasicBindingBinding>
         assertEquals(1, mNotifications.size());
         assertEquals(expectedId, (int) mNotifications.get(0));
     }
+
+    @Test
+    public void testBatchDeduplicatesProperties() {
+        mObservable.addOnPropertyChangedCallback(mCallback);
+        mObservable.beginUpdate();
+        mObservable.notifyPropertyChanged(1);
+        mObservable.notifyPropertyChanged(2);
+        mObservable.notifyPropertyChanged(1);
+        assertTrue(mNotifications.isEmpty());
+        mObservable.endUpdate();
+        assertEquals(2, mNotifications.size());
+        assertEquals(1, (int) mNotifications.get(0));
+        assertEquals(2, (int) mNotifications.get(1));
+    }
+
+    @Test
+    public void testNestedBatch() {
+        mObservable.addOnPropertyChangedCallback(mCallback);
+        mObservable.beginUpdate();
+        mObservable.runInBatch(new Runnable() {
+            @Override
+            public void run() {
+                mObservable.notifyPropertyChanged(1);
+            }
+        });
+        assertTrue(mNotifications.isEmpty());
+        mObservable.endUpdate();
+        assertEquals(1, mNotifications.size());
+        assertEquals(1, (int) mNotifications.get(0));
+    }
+
+    @Test
+    public void testBatchCollapsesToNotifyChange() {
+        mObservable.addOnPropertyChangedCallback(mCallback);
+        mObservable.runInBatch(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= 20; i++) {
+                    mObservable.notifyPropertyChanged(i);
+                }
+            }
+        });
+        assertEquals(1, mNotifications.size());
+        assertEquals(0, (int) mNotifications.get(0));
+
+        mNotifications.clear();
+        mObservable.runInBatch(new Runnable() {
+            @Override
+            public void run() {
+                mObservable.notifyPropertyChanged(1);
+                mObservable.notifyChange();
+            }
+        });
+        assertEquals(1, mNotifications.size());
+        assertEquals(0, (int) mNotifications.get(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEndUpdateWithoutBegin() {
+        mObservable.endUpdate();
+    }
 }
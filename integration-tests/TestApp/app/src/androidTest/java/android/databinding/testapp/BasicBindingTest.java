@@ -23,6 +23,7 @@ import android.support.test.annotation.UiThreadTest;
 import android.support.test.runner.AndroidJUnit4;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import org.junit.Test;
@@ -32,6 +33,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(AndroidJUnit4.class)
@@ -179,6 +181,29 @@ public class BasicBindingTest extends BaseDataBinderTest<BasicBindingBinding> {
         assertNotSame(binding.textView, mBinder.textView);
     }
 
+    @Test
+    @UiThreadTest
+    public void testBindShiftedHierarchy() {
+        // an extra View where the layout has its TextView, as a custom inflater might add
+        LinearLayout root = new LinearLayout(getActivity());
+        root.setTag("layout/basic_binding_0");
+        TextView extraView = new TextView(getActivity());
+        extraView.setTag("extra");
+        root.addView(extraView);
+        TextView textView = new TextView(getActivity());
+        textView.setTag("binding_1");
+        root.addView(textView);
+
+        BasicBindingBinding binding = DataBindingUtil.bind(root);
+        assertNotNull(binding);
+        assertSame(textView, binding.textView);
+        binding.setA("a");
+        binding.setB("b");
+        binding.executePendingBindings();
+        assertEquals("ab", textView.getText().toString());
+        assertEquals("", extraView.getText().toString());
+    }
+
     @Test
     @UiThreadTest
     public void testAndroidId() {
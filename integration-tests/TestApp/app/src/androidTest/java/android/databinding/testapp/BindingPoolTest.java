@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding.testapp;
+
+import androidx.databinding.BindingPool;
+import android.databinding.testapp.databinding.BasicBindingBinding;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class BindingPoolTest extends BaseDataBinderTest<BasicBindingBinding> {
+    public BindingPoolTest() {
+        super(BasicBindingBinding.class);
+    }
+
+    @Test
+    public void testReleaseAndAcquire() throws Throwable {
+        initBinder();
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                BindingPool<BasicBindingBinding> pool = new BindingPool<>();
+                assertNull(pool.acquire(R.layout.basic_binding));
+                mBinder.setA("a");
+                mBinder.setB("b");
+                mBinder.executePendingBindings();
+                assertFalse(mBinder.hasPendingBindings());
+
+                pool.release(R.layout.basic_binding, mBinder);
+                assertNull(mBinder.getA());
+                assertNull(mBinder.getB());
+                assertTrue(mBinder.hasPendingBindings());
+
+                BasicBindingBinding reused = pool.acquire(getActivity().getLayoutInflater(),
+                        R.layout.basic_binding, null);
+                assertSame(mBinder, reused);
+                reused.setA("c");
+                reused.setB("d");
+                reused.executePendingBindings();
+                assertEquals("cd", reused.textView.getText().toString());
+
+                BasicBindingBinding inflated = pool.acquire(getActivity().getLayoutInflater(),
+                        R.layout.basic_binding, null);
+                assertNotNull(inflated);
+                assertNotSame(reused, inflated);
+            }
+        });
+    }
+
+    @Test
+    public void testMaxPerLayout() throws Throwable {
+        initBinder();
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                BindingPool<BasicBindingBinding> pool = new BindingPool<>(1);
+                BasicBindingBinding other = BasicBindingBinding.inflate(
+                        getActivity().getLayoutInflater());
+                pool.release(R.layout.basic_binding, mBinder);
+                pool.release(R.layout.basic_binding, other);
+                assertSame(mBinder, pool.acquire(R.layout.basic_binding));
+                assertNull(pool.acquire(R.layout.basic_binding));
+            }
+        });
+    }
+
+    @Test
+    public void testReleaseTwice() throws Throwable {
+        initBinder();
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                BindingPool<BasicBindingBinding> pool = new BindingPool<>();
+                pool.release(R.layout.basic_binding, mBinder);
+                pool.release(R.layout.basic_binding, mBinder);
+                assertSame(mBinder, pool.acquire(R.layout.basic_binding));
+                assertNull(pool.acquire(R.layout.basic_binding));
+            }
+        });
+    }
+
+    @Test
+    public void testReleaseDetachesRoot() throws Throwable {
+        initBinder();
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                BindingPool<BasicBindingBinding> pool = new BindingPool<>();
+                assertNotNull(mBinder.getRoot().getParent());
+                pool.release(R.layout.basic_binding, mBinder);
+                assertNull(mBinder.getRoot().getParent());
+            }
+        });
+    }
+}
@@ -13,6 +13,11 @@
 
 package android.databinding.testapp;
 
+import androidx.databinding.ObservableArrayList;
+import androidx.databinding.ObservableFloatArrayList;
+import androidx.databinding.ObservableIntArrayList;
+import androidx.databinding.ObservableIntIntMap;
+import androidx.databinding.ObservableSparseArray;
 import android.databinding.testapp.databinding.BracketTestBinding;
 import android.databinding.testapp.vo.BracketObject;
 import android.support.test.annotation.UiThreadTest;
@@ -27,6 +32,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(AndroidJUnit4.class)
 public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
@@ -39,6 +46,11 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
     private SparseBooleanArray mSparseBooleanArray = new SparseBooleanArray();
     private SparseLongArray mSparseLongArray = new SparseLongArray();
     private LongSparseArray<String> mLongSparseArray = new LongSparseArray<>();
+    private ObservableIntArrayList mIntList = new ObservableIntArrayList(new int[] {7});
+    private ObservableFloatArrayList mFloatList = new ObservableFloatArrayList(new float[] {1.5f});
+    private ObservableSparseArray<String> mObservableSparseArray = new ObservableSparseArray<>();
+    private ObservableIntIntMap mIntIntMap = new ObservableIntIntMap();
+    private ObservableArrayList<String> mItems = new ObservableArrayList<>();
 
     public BracketTest() {
         super(BracketTestBinding.class);
@@ -47,6 +59,10 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
         mSparseIntArray.put(0, 100);
         mSparseBooleanArray.put(0, true);
         mSparseLongArray.put(0, 5);
+        mObservableSparseArray.put(0, "Sparse");
+        mIntIntMap.put(0, 42);
+        mItems.add("First");
+        mItems.add("Second");
     }
 
     @Override
@@ -61,6 +77,11 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
                 mBinder.setSparseBooleanArray(mSparseBooleanArray);
                 mBinder.setSparseLongArray(mSparseLongArray);
                 mBinder.setLongSparseArray(mLongSparseArray);
+                mBinder.setIntList(mIntList);
+                mBinder.setFloatList(mFloatList);
+                mBinder.setObservableSparseArray(mObservableSparseArray);
+                mBinder.setIntIntMap(mIntIntMap);
+                mBinder.setItems(mItems);
                 mBinder.setIndexObj((Integer) 0);
 
                 mBinder.executePendingBindings();
@@ -77,6 +98,36 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
         assertEquals("100", mBinder.sparseIntArrayText.getText().toString());
         assertEquals("true", mBinder.sparseBooleanArrayText.getText().toString());
         assertEquals("5", mBinder.sparseLongArrayText.getText().toString());
+        assertEquals("7", mBinder.intListText.getText().toString());
+        assertEquals("1.5", mBinder.floatListText.getText().toString());
+        assertEquals("Sparse", mBinder.observableSparseArrayText.getText().toString());
+        assertEquals("42", mBinder.intIntMapText.getText().toString());
+    }
+
+    @Test
+    @UiThreadTest
+    public void testSparseCollectionChange() {
+        mObservableSparseArray.put(0, "Changed");
+        mIntIntMap.remove(0);
+        mBinder.executePendingBindings();
+        assertEquals("Changed", mBinder.observableSparseArrayText.getText().toString());
+        assertEquals("0", mBinder.intIntMapText.getText().toString());
+
+        mObservableSparseArray.clear();
+        mIntIntMap.put(0, 1);
+        mBinder.executePendingBindings();
+        assertEquals("", mBinder.observableSparseArrayText.getText().toString());
+        assertEquals("1", mBinder.intIntMapText.getText().toString());
+    }
+
+    @Test
+    @UiThreadTest
+    public void testPrimitiveListChange() {
+        mIntList.setInt(0, 8);
+        mFloatList.addFloat(0, 2.5f);
+        mBinder.executePendingBindings();
+        assertEquals("8", mBinder.intListText.getText().toString());
+        assertEquals("2.5", mBinder.floatListText.getText().toString());
     }
 
     @Test
@@ -90,6 +141,8 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
         assertEquals("0", mBinder.sparseIntArrayText.getText().toString());
         assertEquals("false", mBinder.sparseBooleanArrayText.getText().toString());
         assertEquals("0", mBinder.sparseLongArrayText.getText().toString());
+        assertEquals("0", mBinder.intListText.getText().toString());
+        assertEquals("0.0", mBinder.floatListText.getText().toString());
         mBinder.setIndex(-1);
         mBinder.executePendingBindings();
         assertEquals("", mBinder.arrayText.getText().toString());
@@ -98,6 +151,8 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
         assertEquals("0", mBinder.sparseIntArrayText.getText().toString());
         assertEquals("false", mBinder.sparseBooleanArrayText.getText().toString());
         assertEquals("0", mBinder.sparseLongArrayText.getText().toString());
+        assertEquals("0", mBinder.intListText.getText().toString());
+        assertEquals("0.0", mBinder.floatListText.getText().toString());
     }
 
     @Test
@@ -129,4 +184,74 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
         mBinder.executePendingBindings();
         assertEquals("Cruel World", mBinder.observableMap.getText().toString());
     }
+
+    @Test
+    @UiThreadTest
+    public void testMapKeyChange() {
+        BracketObject bracketObject = new BracketObject();
+        bracketObject.observableMap.put("Hello", "Goodbye");
+        mBinder.setObj(bracketObject);
+        mBinder.executePendingBindings();
+
+        bracketObject.observableMap.put("World", "Ignored");
+        assertFalse(mBinder.hasPendingBindings());
+
+        bracketObject.observableMap.put("Hello", "Again");
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        assertEquals("Again", mBinder.observableMap.getText().toString());
+
+        bracketObject.observableMap.clear();
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        assertEquals("", mBinder.observableMap.getText().toString());
+    }
+
+    @Test
+    @UiThreadTest
+    public void testSparseKeyChange() {
+        ObservableSparseArray<String> keyed = new ObservableSparseArray<>();
+        keyed.put(0, "Zero");
+        mBinder.setKeyedSparseArray(keyed);
+        mBinder.executePendingBindings();
+        assertEquals("Zero", mBinder.keyedSparseArrayFirst.getText().toString());
+        assertEquals("", mBinder.keyedSparseArraySecond.getText().toString());
+
+        keyed.put(5, "Ignored");
+        assertFalse(mBinder.hasPendingBindings());
+
+        keyed.put(1, "One");
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        assertEquals("Zero", mBinder.keyedSparseArrayFirst.getText().toString());
+        assertEquals("One", mBinder.keyedSparseArraySecond.getText().toString());
+
+        keyed.clear();
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        assertEquals("", mBinder.keyedSparseArrayFirst.getText().toString());
+        assertEquals("", mBinder.keyedSparseArraySecond.getText().toString());
+    }
+
+    @Test
+    @UiThreadTest
+    public void testListRangeChange() {
+        mBinder.executePendingBindings();
+        assertEquals("First", mBinder.firstItemText.getText().toString());
+        assertEquals("2", mBinder.itemCountText.getText().toString());
+
+        mItems.set(1, "Ignored");
+        assertFalse(mBinder.hasPendingBindings());
+
+        mItems.add("Third");
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        assertEquals("First", mBinder.firstItemText.getText().toString());
+        assertEquals("3", mBinder.itemCountText.getText().toString());
+
+        mItems.add(0, "Zeroth");
+        mBinder.executePendingBindings();
+        assertEquals("Zeroth", mBinder.firstItemText.getText().toString());
+        assertEquals("4", mBinder.itemCountText.getText().toString());
+    }
 }
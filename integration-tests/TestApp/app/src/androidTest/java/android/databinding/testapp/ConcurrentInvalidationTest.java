@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.testapp.databinding.ConcurrentInvalidationBinding;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Sets variables from several threads while the binding rebinds. The variables use two words
+ * of dirty flags, which the atomicDirtyFlags flavor updates with compare-and-set instead of
+ * locking.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConcurrentInvalidationTest
+        extends BaseDataBinderTest<ConcurrentInvalidationBinding> {
+    private static final int VARIABLE_COUNT = 70;
+    private static final int THREAD_COUNT = 4;
+    private static final int ROUNDS = 200;
+
+    public ConcurrentInvalidationTest() {
+        super(ConcurrentInvalidationBinding.class);
+    }
+
+    @Test
+    public void testSetVariablesConcurrently() throws Exception {
+        initBinder();
+        final int[] variableIds = new int[VARIABLE_COUNT];
+        for (int i = 0; i < VARIABLE_COUNT; i++) {
+            variableIds[i] = BR.class.getField("v" + i).getInt(null);
+        }
+        Thread[] threads = new Thread[THREAD_COUNT];
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            final int first = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int round = 1; round <= ROUNDS; round++) {
+                        // each thread sets its own variables, in both words of dirty flags
+                        for (int i = first; i < VARIABLE_COUNT; i += THREAD_COUNT) {
+                            mBinder.setVariable(variableIds[i], round * VARIABLE_COUNT + i);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < VARIABLE_COUNT; i++) {
+            if (i > 0) {
+                expected.append(',');
+            }
+            expected.append(ROUNDS * VARIABLE_COUNT + i);
+        }
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.executePendingBindings();
+                assertFalse(mBinder.hasPendingBindings());
+                assertEquals(expected.toString(), mBinder.textView.getText().toString());
+            }
+        });
+    }
+}
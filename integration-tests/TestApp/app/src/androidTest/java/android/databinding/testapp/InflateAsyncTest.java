@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding.testapp;
+
+import androidx.databinding.DataBindingUtil;
+import android.databinding.testapp.databinding.BasicBindingBinding;
+import android.os.Looper;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class InflateAsyncTest extends BaseDataBinderTest<BasicBindingBinding> {
+    private static final Executor NEW_THREAD = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            new Thread(command).start();
+        }
+    };
+
+    public InflateAsyncTest() {
+        super(BasicBindingBinding.class);
+    }
+
+    @Test
+    public void testInflateAsync() throws Throwable {
+        final BasicBindingBinding[] result = new BasicBindingBinding[1];
+        final Looper[] looper = new Looper[1];
+        final Semaphore semaphore = new Semaphore(0);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                DataBindingUtil.inflateAsync(getActivity().getLayoutInflater(),
+                        R.layout.basic_binding, null, NEW_THREAD,
+                        new DataBindingUtil.OnInflateFinishedListener<BasicBindingBinding>() {
+                            @Override
+                            public void onInflateFinished(BasicBindingBinding binding) {
+                                result[0] = binding;
+                                looper[0] = Looper.myLooper();
+                                semaphore.release();
+                            }
+                        });
+            }
+        });
+        assertTrue(semaphore.tryAcquire(2, TimeUnit.SECONDS));
+        assertNotNull(result[0]);
+        assertEquals(Looper.getMainLooper(), looper[0]);
+        assertNull(result[0].getRoot().getParent());
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                result[0].setA("hello");
+                result[0].setB(" world");
+                result[0].executePendingBindings();
+                assertEquals("hello world", result[0].textView.getText().toString());
+            }
+        });
+    }
+}
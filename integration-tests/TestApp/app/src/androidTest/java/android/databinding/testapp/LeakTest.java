@@ -20,6 +20,7 @@ import android.support.test.rule.ActivityTestRule;
 import android.support.test.runner.AndroidJUnit4;
 import android.widget.FrameLayout;
 
+import androidx.databinding.ViewDataBinding;
 import androidx.lifecycle.MutableLiveData;
 
 import org.junit.Before;
@@ -31,6 +32,7 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -95,6 +97,67 @@ public class LeakTest {
         mLiveData.setValue("world"); // should not crash with NPE;
     }
 
+    @Test
+    public void testStaleListenerRemovedWhenIdle() throws Throwable {
+        //noinspection SimplifiableJUnitAssertion
+        assertTrue("test sanity", mLiveData.hasObservers());
+        final long reclaimed = ViewDataBinding.getReclaimedListenerCount();
+        rule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                getActivity().setContentView(new FrameLayout(getActivity()));
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        forceGC();
+        // the collected binding is enqueued asynchronously, so wait for a few idle passes
+        for (int i = 0; i < 50 && mLiveData.hasObservers(); i++) {
+            rule.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            Thread.sleep(20);
+        }
+        assertFalse(mLiveData.hasObservers());
+        assertTrue(ViewDataBinding.getReclaimedListenerCount() > reclaimed);
+    }
+
+    @Test
+    public void testStaleListenerRemovedWhenRegistering() throws Throwable {
+        //noinspection SimplifiableJUnitAssertion
+        assertTrue("test sanity", mLiveData.hasObservers());
+        rule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                getActivity().setContentView(new FrameLayout(getActivity()));
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        forceGC();
+        rule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                // the thread does not become idle during this runnable, so only registering
+                // the listeners of new bindings removes the collected one
+                for (int i = 0; i < 50 && mLiveData.hasObservers(); i++) {
+                    LeakTestBinding binding = LeakTestBinding.inflate(
+                            getActivity().getLayoutInflater());
+                    binding.setLifecycleOwner(getActivity());
+                    binding.setLiveData(new MutableLiveData<String>());
+                    binding.executePendingBindings();
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                assertFalse(mLiveData.hasObservers());
+            }
+        });
+    }
+
     private void removeDataBindingView() throws Throwable {
         getActivity().setContentView(new FrameLayout(getActivity()));
     }
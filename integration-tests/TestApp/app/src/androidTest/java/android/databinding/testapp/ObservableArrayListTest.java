@@ -25,6 +25,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -43,6 +46,19 @@ public class ObservableArrayListTest extends BaseDataBinderTest<BasicBindingBind
 
     private static final int REMOVE = 4;
 
+    private static final ObservableArrayList.ItemDiffer<String> FIRST_LETTER_DIFFER =
+            new ObservableArrayList.ItemDiffer<String>() {
+                @Override
+                public boolean areItemsTheSame(String oldItem, String newItem) {
+                    return oldItem.charAt(0) == newItem.charAt(0);
+                }
+
+                @Override
+                public boolean areContentsTheSame(String oldItem, String newItem) {
+                    return oldItem.equals(newItem);
+                }
+            };
+
     private ObservableList<String> mObservable;
 
     private ArrayList<ListChange> mNotifications = new ArrayList<>();
@@ -290,4 +306,238 @@ public class ObservableArrayListTest extends BaseDataBinderTest<BasicBindingBind
         assertEquals(0, change.start);
         assertEquals(1, change.count);
     }
+
+    @Test
+    public void testBatchMergesInserts() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.add("Hello");
+        list.addOnListChangedCallback(mListener);
+        list.runInBatch(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 100; i++) {
+                    list.add("World");
+                }
+                list.set(50, "Goodbye");
+            }
+        });
+        assertEquals(101, list.size());
+        assertEquals(1, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(INSERT, change.change);
+        assertEquals(1, change.start);
+        assertEquals(100, change.count);
+    }
+
+    @Test
+    public void testBatchMergesRemovesAndChanges() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        for (int i = 0; i < 10; i++) {
+            list.add("Hello");
+        }
+        list.addOnListChangedCallback(mListener);
+        list.beginUpdate();
+        list.remove(5);
+        list.remove(5);
+        list.remove(4);
+        list.set(0, "World");
+        list.set(1, "World");
+        assertTrue(mNotifications.isEmpty());
+        list.endUpdate();
+        assertEquals(2, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(REMOVE, change.change);
+        assertEquals(4, change.start);
+        assertEquals(3, change.count);
+        change = mNotifications.get(1);
+        assertEquals(CHANGE, change.change);
+        assertEquals(0, change.start);
+        assertEquals(2, change.count);
+    }
+
+    @Test
+    public void testBatchCancelsInsertThenRemove() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addOnListChangedCallback(mListener);
+        list.beginUpdate();
+        list.add("Hello");
+        list.add("World");
+        list.remove(1);
+        list.endUpdate();
+        assertEquals(1, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(INSERT, change.change);
+        assertEquals(0, change.start);
+        assertEquals(1, change.count);
+    }
+
+    @Test
+    public void testBatchFallsBackToChanged() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        for (int i = 0; i < 40; i++) {
+            list.add("Hello");
+        }
+        list.addOnListChangedCallback(mListener);
+        list.runInBatch(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 40; i += 2) {
+                    list.set(i, "World");
+                }
+            }
+        });
+        assertEquals(1, mNotifications.size());
+        assertEquals(ALL, mNotifications.get(0).change);
+    }
+
+    @Test
+    public void testReplaceAll() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("A1", "B1", "C1", "D1", "E1"));
+        list.addOnListChangedCallback(mListener);
+        List<String> newContents = Arrays.asList("A1", "C2", "D1", "F1", "E1");
+        list.replaceAll(newContents, FIRST_LETTER_DIFFER);
+        assertEquals(newContents, list);
+        assertEquals(3, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(REMOVE, change.change);
+        assertEquals(1, change.start);
+        assertEquals(1, change.count);
+        change = mNotifications.get(1);
+        assertEquals(CHANGE, change.change);
+        assertEquals(1, change.start);
+        assertEquals(1, change.count);
+        change = mNotifications.get(2);
+        assertEquals(INSERT, change.change);
+        assertEquals(3, change.start);
+        assertEquals(1, change.count);
+    }
+
+    @Test
+    public void testReplaceAllMove() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("A1", "B1", "C1", "D1"));
+        list.addOnListChangedCallback(mListener);
+        List<String> newContents = Arrays.asList("B1", "C1", "D1", "A1");
+        list.replaceAll(newContents, FIRST_LETTER_DIFFER);
+        assertEquals(newContents, list);
+        assertEquals(1, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(MOVE, change.change);
+        assertEquals(0, change.from);
+        assertEquals(3, change.to);
+        assertEquals(1, change.count);
+    }
+
+    @Test
+    public void testReplaceAllUnchanged() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("A1", "B1"));
+        list.addOnListChangedCallback(mListener);
+        list.replaceAll(Arrays.asList("A1", "B1"), FIRST_LETTER_DIFFER);
+        assertTrue(mNotifications.isEmpty());
+    }
+
+    @Test
+    public void testReplaceAllManyEdits() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        List<String> oldContents = new ArrayList<>();
+        List<String> newContents = new ArrayList<>();
+        // every other item is replaced, which would take 200 range notifications
+        for (int i = 0; i < 200; i++) {
+            oldContents.add((i % 2 == 0 ? "A" : "B") + i);
+            newContents.add((i % 2 == 0 ? "A" : "C") + i);
+        }
+        list.addAll(oldContents);
+        list.addOnListChangedCallback(mListener);
+        list.replaceAll(newContents, FIRST_LETTER_DIFFER);
+        assertEquals(newContents, list);
+        assertEquals(1, mNotifications.size());
+        assertEquals(ALL, mNotifications.get(0).change);
+    }
+
+    @Test
+    public void testReplaceAllLargeInsert() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        List<String> oldContents = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            oldContents.add("A" + i);
+        }
+        List<String> newContents = new ArrayList<>(oldContents.subList(0, 2500));
+        for (int i = 0; i < 1000; i++) {
+            newContents.add("B" + i);
+        }
+        newContents.addAll(oldContents.subList(2500, 5000));
+        list.addAll(oldContents);
+        list.addOnListChangedCallback(mListener);
+        list.replaceAll(newContents, FIRST_LETTER_DIFFER);
+        assertEquals(newContents, list);
+        assertEquals(1, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(INSERT, change.change);
+        assertEquals(2500, change.start);
+        assertEquals(1000, change.count);
+    }
+
+    @Test
+    public void testReplaceAllAsyncOutOfOrder() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("A1", "B1"));
+        list.addOnListChangedCallback(mListener);
+        final List<String> olderContents = Arrays.asList("A1", "B2");
+        final List<String> newerContents = Arrays.asList("A1", "B3");
+        final List<Runnable> diffs = new ArrayList<>();
+        final Executor queueExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                diffs.add(command);
+            }
+        };
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                list.replaceAll(olderContents, FIRST_LETTER_DIFFER, queueExecutor);
+                list.replaceAll(newerContents, FIRST_LETTER_DIFFER, queueExecutor);
+                // the newer difference is known first
+                diffs.get(1).run();
+                diffs.get(0).run();
+            }
+        });
+        waitForUISync();
+        assertEquals(newerContents, list);
+        assertEquals(1, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(CHANGE, change.change);
+        assertEquals(1, change.start);
+        assertEquals(1, change.count);
+    }
+
+    @Test
+    public void testReplaceAllSetDuringDiff() {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("A1", "B1"));
+        list.addOnListChangedCallback(mListener);
+        final List<String> newContents = Arrays.asList("A1", "B2");
+        final Executor directExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                // the difference is applied after this runnable, when it is out of date
+                list.replaceAll(newContents, FIRST_LETTER_DIFFER, directExecutor);
+                list.set(0, "A2");
+            }
+        });
+        waitForUISync();
+        assertEquals(newContents, list);
+        assertEquals(2, mNotifications.size());
+        ListChange change = mNotifications.get(1);
+        assertEquals(CHANGE, change.change);
+        assertEquals(0, change.start);
+        assertEquals(2, change.count);
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import androidx.databinding.ObservableFloatArrayList;
+import androidx.databinding.ObservableList;
+import androidx.databinding.ObservableList.OnListChangedCallback;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class ObservableFloatArrayListTest {
+    private ObservableFloatArrayList mList;
+
+    private final ArrayList<String> mNotifications = new ArrayList<>();
+
+    private final OnListChangedCallback mListener = new OnListChangedCallback() {
+        @Override
+        public void onChanged(ObservableList sender) {
+            mNotifications.add("all");
+        }
+
+        @Override
+        public void onItemRangeChanged(ObservableList sender, int start, int count) {
+            mNotifications.add("change " + start + " " + count);
+        }
+
+        @Override
+        public void onItemRangeInserted(ObservableList sender, int start, int count) {
+            mNotifications.add("insert " + start + " " + count);
+        }
+
+        @Override
+        public void onItemRangeMoved(ObservableList sender, int from, int to, int count) {
+            mNotifications.add("move " + from + " " + to + " " + count);
+        }
+
+        @Override
+        public void onItemRangeRemoved(ObservableList sender, int start, int count) {
+            mNotifications.add("remove " + start + " " + count);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mList = new ObservableFloatArrayList(new float[] {1f, 0f});
+        mList.addOnListChangedCallback(mListener);
+    }
+
+    @Test
+    public void testSetFloat() {
+        mList.setFloat(0, 1f);
+        mList.setFloat(0, Float.NaN);
+        mList.setFloat(0, Float.NaN);
+        mList.setFloat(1, -0f);
+        mList.setFloat(1, -0f);
+        assertEquals(Arrays.asList("change 0 1", "change 1 1"), mNotifications);
+    }
+}
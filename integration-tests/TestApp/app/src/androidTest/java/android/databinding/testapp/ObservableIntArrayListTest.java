@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import androidx.databinding.ObservableIntArrayList;
+import androidx.databinding.ObservableList;
+import androidx.databinding.ObservableList.OnListChangedCallback;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(AndroidJUnit4.class)
+public class ObservableIntArrayListTest {
+    private ObservableIntArrayList mList;
+
+    private final ArrayList<String> mNotifications = new ArrayList<>();
+
+    private final OnListChangedCallback mListener = new OnListChangedCallback() {
+        @Override
+        public void onChanged(ObservableList sender) {
+            mNotifications.add("all");
+        }
+
+        @Override
+        public void onItemRangeChanged(ObservableList sender, int start, int count) {
+            mNotifications.add("change " + start + " " + count);
+        }
+
+        @Override
+        public void onItemRangeInserted(ObservableList sender, int start, int count) {
+            mNotifications.add("insert " + start + " " + count);
+        }
+
+        @Override
+        public void onItemRangeMoved(ObservableList sender, int from, int to, int count) {
+            mNotifications.add("move " + from + " " + to + " " + count);
+        }
+
+        @Override
+        public void onItemRangeRemoved(ObservableList sender, int start, int count) {
+            mNotifications.add("remove " + start + " " + count);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mList = new ObservableIntArrayList(new int[] {1, 2, 3});
+        mList.addOnListChangedCallback(mListener);
+    }
+
+    @Test
+    public void testAddAndSet() {
+        mList.addInt(4);
+        mList.addInt(0, 0);
+        assertEquals(0, mList.setInt(0, 10));
+        mList.setInt(0, 10);
+        assertArrayEquals(new int[] {10, 1, 2, 3, 4}, mList.toIntArray());
+        assertEquals(Arrays.asList("insert 3 1", "insert 0 1", "change 0 1"), mNotifications);
+    }
+
+    @Test
+    public void testBulkOperations() {
+        mList.addAll(1, new int[] {5, 6, 7});
+        mList.setAll(0, new int[] {8, 9});
+        mList.addAll(new int[0]);
+        assertArrayEquals(new int[] {8, 9, 6, 7, 2, 3}, mList.toIntArray());
+        assertEquals(Arrays.asList("insert 1 3", "change 0 2"), mNotifications);
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals(2, mList.removeIntAt(1));
+        assertEquals(Integer.valueOf(3), mList.remove(1));
+        mList.addAll(new int[] {4, 5, 6});
+        mList.subList(1, 3).clear();
+        mList.clear();
+        assertTrue(mList.isEmpty());
+        assertEquals(Arrays.asList("remove 1 1", "remove 1 1", "insert 1 3", "remove 1 2",
+                "remove 0 2"), mNotifications);
+    }
+
+    @Test
+    public void testListMethods() {
+        mList.add(4);
+        mList.set(0, 0);
+        assertEquals(Arrays.asList(0, 2, 3, 4), new ArrayList<>(mList));
+        assertEquals(2, mList.indexOfInt(3));
+        assertEquals(-1, mList.indexOfInt(1));
+        assertEquals(2, mList.indexOf(3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        mList.ensureCapacity(10);
+        mList.getInt(3);
+    }
+
+    @Test
+    public void testSetNull() {
+        try {
+            mList.set(0, null);
+            fail("set(0, null) should throw");
+        } catch (NullPointerException e) {
+            assertEquals("The list cannot hold null items", e.getMessage());
+        }
+        assertArrayEquals(new int[] {1, 2, 3}, mList.toIntArray());
+        assertTrue(mNotifications.isEmpty());
+    }
+}
@@ -15,6 +15,7 @@
  */
 package android.databinding.testapp;
 
+import androidx.databinding.BaseObservable;
 import androidx.databinding.Observable;
 import androidx.databinding.Observable.OnPropertyChangedCallback;
 import androidx.databinding.PropertyChangeRegistry;
@@ -25,6 +26,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(AndroidJUnit4.class)
 public class PropertyChangeRegistryTest extends BaseDataBinderTest<BasicBindingBinding> {
@@ -66,4 +69,148 @@ public class PropertyChangeRegistryTest extends BaseDataBinderTest<BasicBindingB
         propertyChangeRegistry.notifyChange(observableObj, expectedId);
         assertEquals(1, notificationCount);
     }
+
+    @Test
+    public void testNotifyFilteredCallbacks() {
+        PropertyChangeRegistry propertyChangeRegistry = new PropertyChangeRegistry();
+        final Observable observableObj = new BaseObservable();
+        final int[] notifications = new int[3];
+
+        propertyChangeRegistry.add(new OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable observable, int id) {
+                notifications[0]++;
+            }
+        }, new int[] {1, 2});
+        propertyChangeRegistry.add(new FilteredCallback(new int[] {2}) {
+            @Override
+            public void onPropertyChanged(Observable observable, int id) {
+                notifications[1]++;
+            }
+        });
+        propertyChangeRegistry.add(new OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable observable, int id) {
+                notifications[2]++;
+            }
+        });
+
+        propertyChangeRegistry.notifyChange(observableObj, 1);
+        assertEquals(1, notifications[0]);
+        assertEquals(0, notifications[1]);
+        assertEquals(1, notifications[2]);
+
+        propertyChangeRegistry.notifyChange(observableObj, 2);
+        assertEquals(2, notifications[0]);
+        assertEquals(1, notifications[1]);
+        assertEquals(2, notifications[2]);
+
+        propertyChangeRegistry.notifyChange(observableObj, 3);
+        assertEquals(2, notifications[0]);
+        assertEquals(1, notifications[1]);
+        assertEquals(3, notifications[2]);
+
+        // BR._all reaches every callback once
+        propertyChangeRegistry.notifyChange(observableObj, 0);
+        assertEquals(3, notifications[0]);
+        assertEquals(2, notifications[1]);
+        assertEquals(4, notifications[2]);
+        assertEquals(3, propertyChangeRegistry.copyCallbacks().size());
+    }
+
+    @Test
+    public void testRemoveFilteredCallback() {
+        PropertyChangeRegistry propertyChangeRegistry = new PropertyChangeRegistry(true);
+        final Observable observableObj = new BaseObservable();
+        OnPropertyChangedCallback listener = new OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable observable, int id) {
+                notificationCount++;
+            }
+        };
+        propertyChangeRegistry.add(listener, new int[] {1, 2});
+        assertFalse(propertyChangeRegistry.isEmpty());
+        propertyChangeRegistry.notifyChange(observableObj, 2);
+        assertEquals(1, notificationCount);
+
+        propertyChangeRegistry.remove(listener);
+        assertTrue(propertyChangeRegistry.isEmpty());
+        propertyChangeRegistry.notifyChange(observableObj, 1);
+        propertyChangeRegistry.notifyChange(observableObj, 2);
+        propertyChangeRegistry.notifyChange(observableObj, 0);
+        assertEquals(1, notificationCount);
+    }
+
+    @Test
+    public void testChangeFilteredCallbacksDuringNotification() throws InterruptedException {
+        final PropertyChangeRegistry propertyChangeRegistry = new PropertyChangeRegistry();
+        final Observable observableObj = new BaseObservable();
+        final OnPropertyChangedCallback other = new OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable observable, int id) {
+            }
+        };
+        // notified while the registry notifies, so it must not need another lock
+        propertyChangeRegistry.add(new OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable observable, int id) {
+                propertyChangeRegistry.remove(other);
+                propertyChangeRegistry.add(other, new int[] {1});
+            }
+        }, new int[] {1});
+        Thread registering = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 10000; i++) {
+                    propertyChangeRegistry.add(other);
+                    propertyChangeRegistry.remove(other);
+                }
+            }
+        };
+        Thread notifying = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 10000; i++) {
+                    propertyChangeRegistry.notifyChange(observableObj, 1);
+                }
+            }
+        };
+        registering.start();
+        notifying.start();
+        registering.join(10000);
+        notifying.join(10000);
+        assertFalse(registering.isAlive());
+        assertFalse(notifying.isAlive());
+    }
+
+    @Test
+    public void testRemoveFilteredCallbackDuringNotification() {
+        final PropertyChangeRegistry propertyChangeRegistry = new PropertyChangeRegistry();
+        final Observable observableObj = new BaseObservable();
+        propertyChangeRegistry.add(new OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable observable, int id) {
+                notificationCount++;
+                propertyChangeRegistry.remove(this);
+            }
+        }, new int[] {1});
+        propertyChangeRegistry.notifyChange(observableObj, 1);
+        propertyChangeRegistry.notifyChange(observableObj, 1);
+        assertEquals(1, notificationCount);
+        assertTrue(propertyChangeRegistry.isEmpty());
+    }
+
+    private abstract static class FilteredCallback extends OnPropertyChangedCallback
+            implements PropertyChangeRegistry.PropertyFilter {
+        private final int[] mPropertyIds;
+
+        FilteredCallback(int[] propertyIds) {
+            mPropertyIds = propertyIds;
+        }
+
+        @Override
+        public int[] getObservedPropertyIds() {
+            return mPropertyIds;
+        }
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import androidx.databinding.OnRebindCallback;
+import androidx.databinding.RebindScheduler;
+import androidx.databinding.ViewDataBinding;
+import android.databinding.testapp.databinding.BasicBindingBinding;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.ViewGroup;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class RebindSchedulerTest extends BaseDataBinderTest<BasicBindingBinding> {
+    private final long mDefaultBudget = RebindScheduler.getFrameTimeBudget();
+
+    public RebindSchedulerTest() {
+        super(BasicBindingBinding.class);
+    }
+
+    @After
+    public void restoreBudget() {
+        RebindScheduler.setFrameTimeBudget(mDefaultBudget);
+    }
+
+    @Test
+    public void testContainingBindingRebindsFirst() throws InterruptedException {
+        initBinder();
+        final ArrayList<ViewDataBinding> bound = new ArrayList<>();
+        final Semaphore semaphore = new Semaphore(0);
+        final OnRebindCallback callback = new OnRebindCallback() {
+            @Override
+            public void onBound(ViewDataBinding binding) {
+                bound.add(binding);
+                semaphore.release();
+            }
+        };
+        final BasicBindingBinding[] inner = new BasicBindingBinding[1];
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.executePendingBindings();
+                inner[0] = BasicBindingBinding.inflate(getActivity().getLayoutInflater(),
+                        (ViewGroup) mBinder.getRoot(), true);
+                inner[0].executePendingBindings();
+                inner[0].addOnRebindCallback(callback);
+                mBinder.addOnRebindCallback(callback);
+                inner[0].setA("inner");
+                mBinder.setA("outer");
+            }
+        });
+        assertTrue(semaphore.tryAcquire(2, 2, TimeUnit.SECONDS));
+        assertEquals(2, bound.size());
+        assertSame(mBinder, bound.get(0));
+        assertSame(inner[0], bound.get(1));
+    }
+
+    @Test
+    public void testLowPriorityRebindsWithoutBudget() throws InterruptedException {
+        initBinder();
+        RebindScheduler.setFrameTimeBudget(0);
+        final Semaphore semaphore = new Semaphore(0);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.executePendingBindings();
+                mBinder.setRebindPriority(RebindScheduler.PRIORITY_LOW);
+                assertEquals(RebindScheduler.PRIORITY_LOW, mBinder.getRebindPriority());
+                mBinder.addOnRebindCallback(new OnRebindCallback() {
+                    @Override
+                    public void onBound(ViewDataBinding binding) {
+                        semaphore.release();
+                    }
+                });
+                mBinder.setA("a");
+                mBinder.setB("b");
+            }
+        });
+        assertTrue(semaphore.tryAcquire(2, TimeUnit.SECONDS));
+        assertEquals("ab", mBinder.textView.getText().toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeBudget() {
+        RebindScheduler.setFrameTimeBudget(-1);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.databinding;
+
+import android.databinding.testapp.BR;
+import android.databinding.testapp.R;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+
+@RunWith(AndroidJUnit4.class)
+public class MergedDataBinderMapperTest {
+    private static final String MISSING_FEATURE = "android.databinding.testapp.missing";
+    private static final String TEST_APP_FEATURE = "android.databinding.testapp";
+
+    @Test
+    public void testBrIdIndex() {
+        EmptyMapper empty = new EmptyMapper();
+        MergedDataBinderMapper mapper = new MergedDataBinderMapper();
+        mapper.addMapper(empty);
+        mapper.addMapper(new android.databinding.testapp.DataBinderMapperImpl());
+        assertEquals("a", mapper.convertBrIdToString(BR.a));
+        assertEquals("a", mapper.convertBrIdToString(BR.a));
+        assertEquals(1, empty.brIdLookups);
+    }
+
+    @Test
+    public void testLayoutIdIndex() {
+        final EmptyMapper empty = new EmptyMapper();
+        final MergedDataBinderMapper mapper = new MergedDataBinderMapper();
+        mapper.addMapper(empty);
+        mapper.addMapper(new android.databinding.testapp.DataBinderMapperImpl());
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                LayoutInflater inflater = LayoutInflater.from(
+                        InstrumentationRegistry.getTargetContext());
+                for (int i = 0; i < 2; i++) {
+                    // a binding removes the tag of its root, so bind a new View each time
+                    View view = inflater.inflate(R.layout.basic_binding, null, false);
+                    assertNotNull(mapper.getDataBinder(null, view, R.layout.basic_binding));
+                }
+            }
+        });
+        assertEquals(1, empty.bindingLookups);
+    }
+
+    @Test
+    public void testMissingFeatureMapperCache() {
+        final List<String> loaded = new ArrayList<>();
+        MergedDataBinderMapper mapper = new MergedDataBinderMapper() {
+            @Override
+            Class<?> loadFeatureMapperClass(String className) throws ClassNotFoundException {
+                loaded.add(className);
+                return super.loadFeatureMapperClass(className);
+            }
+        };
+        mapper.addMapper(MISSING_FEATURE);
+        mapper.addMapper(TEST_APP_FEATURE);
+        // loads both features, then tries the missing one again because a mapper was added
+        assertEquals("a", mapper.convertBrIdToString(BR.a));
+        assertNull(mapper.convertBrIdToString(-1));
+        assertEquals(2, count(loaded, MISSING_FEATURE + ".DataBinderMapperImpl"));
+        // the missing feature is not looked up again until a mapper is added
+        assertNull(mapper.convertBrIdToString(-1));
+        assertNull(mapper.convertBrIdToString(-1));
+        assertEquals(2, count(loaded, MISSING_FEATURE + ".DataBinderMapperImpl"));
+        assertEquals(1, count(loaded, TEST_APP_FEATURE + ".DataBinderMapperImpl"));
+
+        mapper.preloadFeatures();
+        assertEquals(3, count(loaded, MISSING_FEATURE + ".DataBinderMapperImpl"));
+    }
+
+    private static int count(List<String> list, String value) {
+        int count = 0;
+        for (String item : list) {
+            if (item.equals(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A mapper without layouts that counts its lookups.
+     */
+    private static class EmptyMapper extends DataBinderMapper {
+        int bindingLookups;
+        int brIdLookups;
+
+        @Override
+        public ViewDataBinding getDataBinder(DataBindingComponent bindingComponent, View view,
+                int layoutId) {
+            bindingLookups++;
+            return null;
+        }
+
+        @Override
+        public ViewDataBinding getDataBinder(DataBindingComponent bindingComponent,
+                View[] view, int layoutId) {
+            bindingLookups++;
+            return null;
+        }
+
+        @Override
+        public int getLayoutId(String tag) {
+            return 0;
+        }
+
+        @Override
+        public String convertBrIdToString(int id) {
+            brIdLookups++;
+            return null;
+        }
+    }
+}
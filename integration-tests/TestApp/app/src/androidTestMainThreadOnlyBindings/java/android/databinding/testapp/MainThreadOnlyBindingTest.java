@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.testapp.databinding.BasicBindingBinding;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The mainThreadOnlyBindings flavor of the TestApp is compiled with main thread only bindings.
+ * The tests run in the debug build, so the bindings check the thread they are used from. The
+ * tests themselves run on the instrumentation thread, which is not the main thread.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MainThreadOnlyBindingTest extends BaseDataBinderTest<BasicBindingBinding> {
+    public MainThreadOnlyBindingTest() {
+        super(BasicBindingBinding.class);
+    }
+
+    @Before
+    public void setUpBinding() {
+        initBinder();
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setA("a");
+                mBinder.setB("b");
+                mBinder.executePendingBindings();
+            }
+        });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSetVariableOffMainThread() {
+        mBinder.setA("x");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExecutePendingBindingsOffMainThread() {
+        mBinder.executePendingBindings();
+    }
+
+    @Test
+    public void testRebindScheduled() {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setA("x");
+                mBinder.setB("y");
+                assertTrue(mBinder.hasPendingBindings());
+            }
+        });
+        waitForUISync();
+        assertText("xy");
+
+        // the first rebind cleared the pending flag, so the next change schedules another one
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setA("z");
+            }
+        });
+        waitForUISync();
+        assertText("zy");
+    }
+
+    @Test
+    public void testRebindScheduledAfterExecutePendingBindings() {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setA("x");
+                mBinder.executePendingBindings();
+                mBinder.setB("y");
+            }
+        });
+        waitForUISync();
+        assertText("xy");
+    }
+
+    private void assertText(final String text) {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertFalse(mBinder.hasPendingBindings());
+                assertEquals(text, mBinder.textView.getText().toString());
+            }
+        });
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import androidx.databinding.ViewDataBinding;
+import android.databinding.testapp.databinding.TwoPhaseBindingBinding;
+import android.databinding.testapp.vo.BasicObject;
+import android.databinding.testapp.vo.ObservableFieldBindingObject;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * The twoPhaseBindings flavor of the TestApp is compiled with two-phase bindings, so scheduled
+ * rebinds evaluate their expressions on the evaluation executor. The executor of these tests
+ * only queues the evaluations, so that the tests decide when they run.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TwoPhaseBindingTest extends BaseDataBinderTest<TwoPhaseBindingBinding> {
+    private final BlockingQueue<Runnable> mEvaluations = new LinkedBlockingQueue<>();
+
+    private final Executor mExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mEvaluations.add(command);
+        }
+    };
+
+    private final BasicObject mObj = new BasicObject();
+
+    public TwoPhaseBindingTest() {
+        super(TwoPhaseBindingBinding.class);
+    }
+
+    @Before
+    public void setUpBinding() {
+        initBinder();
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setText("a");
+                mBinder.setObj(mObj);
+                mBinder.executePendingBindings();
+            }
+        });
+        ViewDataBinding.setEvaluationExecutor(mExecutor);
+    }
+
+    @After
+    public void resetExecutor() {
+        ViewDataBinding.setEvaluationExecutor(null);
+    }
+
+    @Test
+    public void testBackgroundEvaluation() throws InterruptedException {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setText("b");
+            }
+        });
+        waitForUISync();
+        Runnable evaluation = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(evaluation);
+        assertText("a", "0");
+
+        // evaluate on this thread, which is not the main thread
+        evaluation.run();
+        waitForUISync();
+        assertText("b", "0");
+        assertNull(mEvaluations.poll());
+    }
+
+    @Test
+    public void testChangeBeforeApply() throws InterruptedException {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setText("b");
+            }
+        });
+        waitForUISync();
+        final Runnable evaluation = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(evaluation);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                // the values are applied after this runnable, when they are out of date
+                evaluation.run();
+                mBinder.setText("c");
+            }
+        });
+        waitForUISync();
+        assertText("b", "0");
+
+        Runnable reevaluation = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(reevaluation);
+        reevaluation.run();
+        waitForUISync();
+        assertText("c", "0");
+    }
+
+    @Test
+    public void testChangeBeforeRegistration() throws InterruptedException {
+        final BasicObject other = new BasicObject();
+        other.val.set(1);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setObj(other);
+            }
+        });
+        waitForUISync();
+        final Runnable evaluation = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(evaluation);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                evaluation.run();
+                // other.val is only observed once the values are applied
+                other.val.set(2);
+            }
+        });
+        waitForUISync();
+        assertText("a", "1");
+
+        // the values read in the background are compared on the executor as well
+        Runnable check = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(check);
+        check.run();
+        waitForUISync();
+        Runnable reevaluation = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(reevaluation);
+        reevaluation.run();
+        waitForUISync();
+        assertText("a", "2");
+    }
+
+    @Test
+    public void testUnchangedAfterRegistration() throws InterruptedException {
+        final BasicObject other = new BasicObject();
+        other.val.set(1);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setObj(other);
+            }
+        });
+        waitForUISync();
+        Runnable evaluation = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(evaluation);
+        evaluation.run();
+        waitForUISync();
+        assertText("a", "1");
+        Runnable check = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(check);
+        check.run();
+        // other.val did not change, so nothing is evaluated again
+        waitForUISync();
+        assertNull(mEvaluations.poll());
+    }
+
+    @Test
+    public void testNaNUnchangedAfterRegistration() throws InterruptedException {
+        final ObservableFieldBindingObject fields = new ObservableFieldBindingObject();
+        fields.fField.set(Float.NaN);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setFields(fields);
+            }
+        });
+        waitForUISync();
+        Runnable evaluation = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(evaluation);
+        evaluation.run();
+        waitForUISync();
+        Runnable check = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(check);
+        check.run();
+        // NaN is the value that was evaluated, so nothing is evaluated again
+        waitForUISync();
+        assertNull(mEvaluations.poll());
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals("NaN", mBinder.ratioView.getText().toString());
+            }
+        });
+    }
+
+    @Test
+    public void testExecutePendingBindingsBeforeEvaluation() throws InterruptedException {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setText("b");
+            }
+        });
+        waitForUISync();
+        Runnable evaluation = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(evaluation);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.executePendingBindings();
+                assertEquals("b", mBinder.textView.getText().toString());
+            }
+        });
+        // the evaluation was canceled, so it does nothing
+        evaluation.run();
+        waitForUISync();
+        assertText("b", "0");
+        assertNull(mEvaluations.poll());
+    }
+
+    @Test
+    public void testExecutePendingBindingsBeforeApply() throws InterruptedException {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setText("b");
+            }
+        });
+        waitForUISync();
+        final Runnable evaluation = mEvaluations.poll(1, TimeUnit.SECONDS);
+        assertNotNull(evaluation);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                evaluation.run();
+                mObj.val.set(3);
+                // applies the evaluated text, then evaluates the value synchronously
+                mBinder.executePendingBindings();
+                assertEquals("b", mBinder.textView.getText().toString());
+                assertEquals("3", mBinder.valView.getText().toString());
+            }
+        });
+        waitForUISync();
+        assertText("b", "3");
+        assertNull(mEvaluations.poll());
+    }
+
+    private void assertText(final String text, final String val) {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(text, mBinder.textView.getText().toString());
+                assertEquals(val, mBinder.valView.getText().toString());
+            }
+        });
+    }
+}